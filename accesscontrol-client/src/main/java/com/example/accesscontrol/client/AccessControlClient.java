@@ -0,0 +1,291 @@
+package com.example.accesscontrol.client;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Authorization checks against the access control service, answered from a local cache.
+ * A user's effective permissions are fetched once and then served from memory until the
+ * service's change feed ({@code GET /api/changes}) reports something that affects them.
+ * Nothing expires on a timer.
+ *
+ * <p>A background thread polls the feed. While it cannot, cached answers are trusted for
+ * {@code maxStaleness}; after that every check goes to the service until the feed catches up.
+ * If the service has already purged the position the client was at, the whole cache is dropped.
+ *
+ * <pre>{@code
+ * AccessControlClient client = AccessControlClient.builder(URI.create("https://accesscontrol.internal"))
+ *         .token(() -> serviceAccountToken())
+ *         .build();
+ * if (client.hasPermission(email, "REPORTS_EXPORT")) { ... }
+ * }</pre>
+ *
+ * The token must belong to an ADMIN account of the service.
+ */
+public final class AccessControlClient implements AutoCloseable {
+
+    private final URI baseUri;
+    private final Supplier<String> token;
+    private final HttpClient http;
+    private final Duration requestTimeout;
+    private final long maxStalenessNanos;
+    private final int feedBatch;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final DecisionCache cache;
+    private final ScheduledExecutorService poller;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Only written by the poller thread
+    private volatile long cursor = -1;
+    private volatile long lastFeedSuccess;
+
+    /** Counters since the client was built. */
+    public record Stats(long hits, long misses, int size, long feedPosition) {
+    }
+
+    private record ChangePage(List<Change> changes, long next, boolean reset) {
+    }
+
+    private record Change(long seq, String type, Long id, String action) {
+    }
+
+    private AccessControlClient(Builder b) {
+        this.baseUri = b.baseUri;
+        this.token = b.token;
+        this.http = b.httpClient != null ? b.httpClient
+                : HttpClient.newBuilder().connectTimeout(b.requestTimeout).build();
+        this.requestTimeout = b.requestTimeout;
+        this.maxStalenessNanos = b.maxStaleness.toNanos();
+        this.feedBatch = b.feedBatch;
+        this.cache = new DecisionCache(b.maxEntries);
+        this.lastFeedSuccess = System.nanoTime() - maxStalenessNanos - 1;
+
+        this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "accesscontrol-change-feed");
+            t.setDaemon(true);
+            return t;
+        });
+        long every = b.pollInterval.toMillis();
+        poller.scheduleWithFixedDelay(this::pollQuietly, 0, every, TimeUnit.MILLISECONDS);
+    }
+
+    public static Builder builder(URI baseUri) {
+        return new Builder(baseUri);
+    }
+
+    public boolean hasPermission(String email, String permission) {
+        EffectivePermissions p = effective(email);
+        return p != null && p.hasPermission(permission);
+    }
+
+    public boolean hasRole(String email, String role) {
+        EffectivePermissions p = effective(email);
+        return p != null && p.hasRole(role);
+    }
+
+    /** The user's effective permissions, or null if the service does not know the email. */
+    public EffectivePermissions effective(String email) {
+        if (email == null || email.isBlank()) return null;
+        String key = email.strip().toLowerCase(Locale.ROOT);
+        boolean feedCurrent = System.nanoTime() - lastFeedSuccess <= maxStalenessNanos;
+
+        if (feedCurrent) {
+            EffectivePermissions cached = cache.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        long generation = cache.generation();
+        EffectivePermissions loaded = load(key);
+        if (loaded != null && feedCurrent) cache.put(key, loaded, generation);
+        return loaded;
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), cache.size(), cursor);
+    }
+
+    @Override
+    public void close() {
+        poller.shutdownNow();
+    }
+
+    private EffectivePermissions load(String email) {
+        HttpResponse<byte[]> response = get("/api/authorization/effective?email="
+                + URLEncoder.encode(email, StandardCharsets.UTF_8));
+        if (response.statusCode() == 404) return null;
+        try {
+            return mapper.readValue(response.body(), EffectivePermissions.class);
+        } catch (IOException e) {
+            throw new AccessControlClientException("Unreadable effective permissions response", e);
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+            lastFeedSuccess = System.nanoTime();
+        } catch (RuntimeException ignored) {
+            // Retried on the next tick; effective() stops trusting the cache once this lasts
+        }
+    }
+
+    private void poll() {
+        if (cursor < 0) {
+            // First contact: nothing is cached yet, so starting at the head misses nothing
+            cursor = page("/api/changes").next();
+            return;
+        }
+        ChangePage page;
+        do {
+            page = page("/api/changes?since=" + cursor + "&limit=" + feedBatch);
+            if (page.reset()) {
+                cache.invalidateAll();
+            } else {
+                apply(page.changes());
+            }
+            cursor = page.next();
+        } while (!page.reset() && page.changes().size() >= feedBatch);
+    }
+
+    private void apply(List<Change> changes) {
+        if (changes.isEmpty()) return;
+        Set<Long> users = new HashSet<>();
+        Set<Long> roles = new HashSet<>();
+        Set<Long> groups = new HashSet<>();
+        for (Change c : changes) {
+            switch (c.type()) {
+                case "USER" -> users.add(c.id());
+                case "ROLE" -> roles.add(c.id());
+                case "GROUP" -> groups.add(c.id());
+                case "PERMISSION" -> {
+                    // A new permission belongs to no role yet; renames and deletes reach everyone
+                    if (!"created".equals(c.action())) {
+                        cache.invalidateAll();
+                        return;
+                    }
+                }
+                default -> {
+                    // Anything newer than this client
+                    cache.invalidateAll();
+                    return;
+                }
+            }
+        }
+        cache.invalidate(users, roles, groups);
+    }
+
+    private ChangePage page(String path) {
+        try {
+            return mapper.readValue(get(path).body(), ChangePage.class);
+        } catch (IOException e) {
+            throw new AccessControlClientException("Unreadable change feed response", e);
+        }
+    }
+
+    private HttpResponse<byte[]> get(String pathAndQuery) {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(pathAndQuery))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .header("Authorization", "Bearer " + token.get())
+                .GET()
+                .build();
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new AccessControlClientException("Access control service unreachable", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccessControlClientException("Interrupted", e);
+        }
+        int status = response.statusCode();
+        if (status != 200 && status != 404) {
+            throw new AccessControlClientException("Access control service answered " + status + " for " + pathAndQuery);
+        }
+        return response;
+    }
+
+    public static final class Builder {
+        private final URI baseUri;
+        private Supplier<String> token;
+        private HttpClient httpClient;
+        private int maxEntries = 10_000;
+        private Duration pollInterval = Duration.ofSeconds(1);
+        private Duration maxStaleness = Duration.ofSeconds(30);
+        private Duration requestTimeout = Duration.ofSeconds(5);
+        private int feedBatch = 1000;
+
+        private Builder(URI baseUri) {
+            this.baseUri = Objects.requireNonNull(baseUri, "baseUri");
+        }
+
+        /** Bearer token of an ADMIN account, asked for on every request so it can be refreshed. */
+        public Builder token(Supplier<String> token) {
+            this.token = token;
+            return this;
+        }
+
+        public Builder httpClient(HttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        /** Users held in memory; the least recently checked go first. */
+        public Builder maxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /** Delay between change feed polls, which bounds how late a change is seen. */
+        public Builder pollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+            return this;
+        }
+
+        /** How long cached answers are still used while the change feed is unreachable. */
+        public Builder maxStaleness(Duration maxStaleness) {
+            this.maxStaleness = maxStaleness;
+            return this;
+        }
+
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        public Builder feedBatch(int feedBatch) {
+            this.feedBatch = feedBatch;
+            return this;
+        }
+
+        /** Starts polling the change feed right away. */
+        public AccessControlClient build() {
+            Objects.requireNonNull(token, "token");
+            if (maxStaleness.compareTo(pollInterval) <= 0) {
+                throw new IllegalArgumentException("maxStaleness must be longer than pollInterval");
+            }
+            return new AccessControlClient(this);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.accesscontrol.client;
+
+/** The service could not be reached or answered with an unexpected status. */
+public class AccessControlClientException extends RuntimeException {
+
+    public AccessControlClientException(String message) {
+        super(message);
+    }
+
+    public AccessControlClientException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
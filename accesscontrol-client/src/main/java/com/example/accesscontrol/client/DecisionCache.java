@@ -0,0 +1,105 @@
+package com.example.accesscontrol.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU map from normalized email to {@link EffectivePermissions}, split into segments
+ * by key hash so concurrent readers rarely meet on the same lock. Each segment is an
+ * access-ordered LinkedHashMap holding its share of the bound.
+ *
+ * <p>Every invalidation bumps a generation counter. A load records the generation before it
+ * calls the service and is only kept if no invalidation happened meanwhile, so a change that
+ * arrives while the request is in flight cannot be overwritten by the stale answer.
+ */
+final class DecisionCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final AtomicLong generation = new AtomicLong();
+
+    private static final class Segment extends LinkedHashMap<String, EffectivePermissions> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, EffectivePermissions> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    DecisionCache(int maxEntries) {
+        int perSegment = Math.max(1, (maxEntries + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) segments[i] = new Segment(perSegment);
+    }
+
+    EffectivePermissions get(String key) {
+        Segment s = segment(key);
+        synchronized (s) {
+            return s.get(key);
+        }
+    }
+
+    long generation() {
+        return generation.get();
+    }
+
+    void put(String key, EffectivePermissions value, long loadedAtGeneration) {
+        Segment s = segment(key);
+        // Invalidations bump the generation before taking segment locks, so checking under the lock is enough
+        synchronized (s) {
+            if (generation.get() == loadedAtGeneration) s.put(key, value);
+        }
+    }
+
+    /** Drops every entry that depends on one of the given users, roles or groups. */
+    void invalidate(Set<Long> userIds, Set<Long> roleIds, Set<Long> groupIds) {
+        generation.incrementAndGet();
+        for (Segment s : segments) {
+            synchronized (s) {
+                s.values().removeIf(e -> userIds.contains(e.userId())
+                        || intersects(e.roleIds(), roleIds)
+                        || intersects(e.groupIds(), groupIds));
+            }
+        }
+    }
+
+    void invalidateAll() {
+        generation.incrementAndGet();
+        for (Segment s : segments) {
+            synchronized (s) {
+                s.clear();
+            }
+        }
+    }
+
+    int size() {
+        int n = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                n += s.size();
+            }
+        }
+        return n;
+    }
+
+    private Segment segment(String key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static boolean intersects(Set<Long> held, Set<Long> changed) {
+        if (changed.isEmpty()) return false;
+        for (Long id : held) {
+            if (changed.contains(id)) return true;
+        }
+        return false;
+    }
+}
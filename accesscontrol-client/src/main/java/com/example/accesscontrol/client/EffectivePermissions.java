@@ -0,0 +1,31 @@
+package com.example.accesscontrol.client;
+
+import java.util.Set;
+
+/**
+ * What one user may do, as resolved by the service: direct roles plus roles granted to the
+ * user's groups, and the permissions those roles carry. A disabled user is denied everything.
+ */
+public record EffectivePermissions(long userId,
+                                   String email,
+                                   boolean enabled,
+                                   Set<String> roles,
+                                   Set<Long> roleIds,
+                                   Set<Long> groupIds,
+                                   Set<String> permissions) {
+
+    public EffectivePermissions {
+        roles = Set.copyOf(roles);
+        roleIds = Set.copyOf(roleIds);
+        groupIds = Set.copyOf(groupIds);
+        permissions = Set.copyOf(permissions);
+    }
+
+    public boolean hasPermission(String permission) {
+        return enabled && permissions.contains(permission);
+    }
+
+    public boolean hasRole(String role) {
+        return enabled && roles.contains(role);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.accesscontrol;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result file against a baseline and exits with 1 when any benchmark
+ * regressed by more than the tolerance. A change only counts when the two results' error
+ * intervals (score +- scoreError) do not overlap, so noise within the reported error does
+ * not fail the build. Absolute scores only compare on the same machine.
+ *
+ * <pre>java BenchmarkComparison baseline.json results.json [tolerancePercent]</pre>
+ */
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkComparison <baseline.json> <results.json> [tolerancePercent]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %24s %24s %9s%n", "benchmark", "baseline", "current", "change");
+        for (var e : current.entrySet()) {
+            JsonNode now = e.getValue();
+            JsonNode before = baseline.get(e.getKey());
+            double score = now.at("/primaryMetric/score").asDouble();
+            double error = error(now);
+            String unit = now.at("/primaryMetric/scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-70s %24s %24s %9s  %s%n", e.getKey(), "-", format(score, error), "new", unit);
+                continue;
+            }
+
+            double base = before.at("/primaryMetric/score").asDouble();
+            double baseError = error(before);
+            double change = base == 0 ? 0 : (score - base) / base * 100.0;
+            // Throughput modes get better when the score rises; time modes when it falls
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            boolean regressed = higherIsBetter
+                    ? change < -tolerance && score + error < base - baseError
+                    : change > tolerance && score - error > base + baseError;
+            if (regressed) regressions++;
+            System.out.printf("%-70s %24s %24s %+8.1f%%  %s%s%n",
+                    e.getKey(), format(base, baseError), format(score, error), change, unit, regressed ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, tolerance);
+            System.exit(1);
+        }
+    }
+
+    // JMH reports NaN when there were too few iterations to estimate one
+    private static double error(JsonNode run) {
+        double error = run.at("/primaryMetric/scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String format(double score, double error) {
+        return String.format("%.3f +- %.3f", score, error);
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> byName = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            String name = run.path("benchmark").asText();
+            JsonNode params = run.path("params");
+            byName.put(params.isMissingNode() ? name : name + params, run);
+        }
+        return byName;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.accesscontrol;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Deterministic bulk seed for benchmarks, written with JDBC batches. Seeded rows use ids from
+ * {@link #ID_BASE} upwards so they never collide with rows the application inserts itself.
+ *
+ * <p>Every user has role 0 (the "MEMBER" of the dataset), every tenth user also has role 1, and
+ * each user belongs to one group. Each role has five permissions, each group two roles.
+ */
+public final class BenchmarkDataset {
+
+    public static final long ID_BASE = 1_000_000_000L;
+    public static final String PASSWORD = "password";
+
+    private static final int BATCH = 5_000;
+
+    private final int users;
+    private final int groups;
+    private final int roles;
+    private final int permissions;
+
+    public BenchmarkDataset(int users, int groups, int roles, int permissions) {
+        this.users = users;
+        this.groups = groups;
+        this.roles = roles;
+        this.permissions = permissions;
+    }
+
+    public void seed(JdbcTemplate jdbc) {
+        String hash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        Random random = new Random(42);
+
+        insert(jdbc, "INSERT INTO permissions (id, name, version) VALUES (?, ?, 0)", permissions,
+                i -> new Object[]{permissionId(i), "BENCH_PERMISSION_" + i});
+        insert(jdbc, "INSERT INTO roles (id, name, version) VALUES (?, ?, 0)", roles,
+                i -> new Object[]{roleId(i), "BENCH_ROLE_" + i});
+        insert(jdbc, "INSERT INTO `groups` (id, name, version) VALUES (?, ?, 0)", groups,
+                i -> new Object[]{groupId(i), "Bench group " + i});
+        insert(jdbc, "INSERT INTO users (id, email, password, enabled, version) VALUES (?, ?, ?, ?, 0)", users,
+                i -> new Object[]{userId(i), email(i), hash, i % 5 != 0});
+
+        insert(jdbc, "INSERT INTO role_permissions (role_id, permission_id) VALUES (?, ?)", roles * 5,
+                i -> new Object[]{roleId(i / 5), permissionId((i / 5 + i % 5) % permissions)});
+        insert(jdbc, "INSERT INTO group_roles (group_id, role_id) VALUES (?, ?)", groups * 2,
+                i -> new Object[]{groupId(i / 2), roleId(i % 2 == 0 ? 0 : 1 + (i / 2) % (roles - 1))});
+
+        int heavy = (users + 9) / 10;
+        insert(jdbc, "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)", users + heavy,
+                i -> i < users
+                        ? new Object[]{userId(i), roleId(0)}
+                        : new Object[]{userId((i - users) * 10), roleId(1)});
+        insert(jdbc, "INSERT INTO user_groups (user_id, group_id) VALUES (?, ?)", users,
+                i -> new Object[]{userId(i), groupId(random.nextInt(groups))});
+    }
+
+    private static void insert(JdbcTemplate jdbc, String sql, int rows, IntFunction<Object[]> row) {
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < rows; i++) {
+            batch.add(row.apply(i));
+            if (batch.size() == BATCH) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) jdbc.batchUpdate(sql, batch);
+    }
+
+    public static long userId(int i) {
+        return ID_BASE + i;
+    }
+
+    public static long roleId(int i) {
+        return ID_BASE + i;
+    }
+
+    public static long groupId(int i) {
+        return ID_BASE + i;
+    }
+
+    public static long permissionId(int i) {
+        return ID_BASE + i;
+    }
+
+    public static String email(int i) {
+        return "seed" + i + "@bench.example.com";
+    }
+
+    public int users() {
+        return users;
+    }
+
+    public int groups() {
+        return groups;
+    }
+
+    public int roles() {
+        return roles;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.accesscontrol;
+
+import com.example.accesscontrol.config.logs;
+import com.example.accesscontrol.dto.auth.LoginAuthResponse;
+import com.example.accesscontrol.dto.user.getUsers.GetUsersResponse;
+import com.example.accesscontrol.dto.user.getUsers.UserSummaryResponse;
+import com.example.accesscontrol.entity.Role;
+import com.example.accesscontrol.entity.User;
+import com.example.accesscontrol.security.jwt.JwtKeyProperties;
+import com.example.accesscontrol.security.jwt.JwtTokenProvider;
+import com.example.accesscontrol.security.jwt.SigningKeyStore;
+import com.example.accesscontrol.service.AuthService;
+import com.example.accesscontrol.service.CustomUserDetailsService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Code that runs on every authenticated request or login, without Spring or a database.
+ * Results are compared against src/jmh/baseline/hot-path.json by {@link BenchmarkComparison}.
+ * Several forks keep JIT and layout luck between runs inside the error bars the gate relies on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class HotPathBenchmark {
+
+    private static final String EMAIL = "jane.doe@example.com";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+    private User user;
+    private List<Role> inheritedRoles;
+    private logs logs;
+    private Pattern emailPattern;
+    private ObjectMapper objectMapper;
+    private LoginAuthResponse loginResponse;
+    private GetUsersResponse usersPage;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtTokenProvider = new JwtTokenProvider(new StaticListableBeanFactory().getBeanProvider(SigningKeyStore.class),
+                new JwtKeyProperties());
+        Field secret = JwtTokenProvider.class.getDeclaredField("secret");
+        secret.setAccessible(true);
+        secret.set(jwtTokenProvider, "mySuperSecureSecretKey1234567890!");
+        Field expiration = JwtTokenProvider.class.getDeclaredField("expiration");
+        expiration.setAccessible(true);
+        expiration.set(jwtTokenProvider, Duration.ofHours(1));
+        Method init = JwtTokenProvider.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(jwtTokenProvider);
+        token = jwtTokenProvider.generateToken(EMAIL);
+
+        Set<Role> roles = new LinkedHashSet<>();
+        roles.add(Role.builder().id(1L).name("ADMIN").build());
+        roles.add(Role.builder().id(2L).name("MEMBER").build());
+        roles.add(Role.builder().id(3L).name("AUTHOR").build());
+        user = User.builder().id(1L).email(EMAIL).password("$2a$10$hash").enabled(true).roles(roles).build();
+        // What the closure returns for those roles; MEMBER is also held directly and granted once
+        inheritedRoles = List.of(
+                Role.builder().id(2L).name("MEMBER").build(),
+                Role.builder().id(4L).name("READER").build(),
+                Role.builder().id(5L).name("COMMENTER").build());
+
+        logs = new logs();
+
+        Field pattern = AuthService.class.getDeclaredField("EMAIL_PATTERN");
+        pattern.setAccessible(true);
+        emailPattern = (Pattern) pattern.get(null);
+
+        objectMapper = new ObjectMapper();
+        loginResponse = LoginAuthResponse.builder().token(token).userId(1L).roles(List.of("ADMIN", "MEMBER")).build();
+        usersPage = new GetUsersResponse(IntStream.rangeClosed(1, 10)
+                .mapToObj(i -> UserSummaryResponse.builder()
+                        .id((long) i)
+                        .email("user" + i + "@example.com")
+                        .enabled(i % 2 == 0)
+                        .roles(List.of("MEMBER", "AUTHOR"))
+                        .build())
+                .toList(), 0, 10_000);
+    }
+
+    @Benchmark
+    public String jwtGenerateToken() {
+        return jwtTokenProvider.generateToken(EMAIL);
+    }
+
+    @Benchmark
+    public boolean jwtValidateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String jwtGetEmailFromToken() {
+        return jwtTokenProvider.getEmailFromToken(token);
+    }
+
+    @Benchmark
+    public UserDetails userDetailsAuthorities() {
+        return CustomUserDetailsService.toUserDetails(user, inheritedRoles);
+    }
+
+    @Benchmark
+    public String logsMask() {
+        return logs.mask(EMAIL);
+    }
+
+    @Benchmark
+    public boolean emailPatternValid() {
+        return emailPattern.matcher(EMAIL).matches();
+    }
+
+    @Benchmark
+    public boolean emailPatternInvalid() {
+        return emailPattern.matcher("jane.doe@example").matches();
+    }
+
+    @Benchmark
+    public String jsonLoginAuthResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(loginResponse);
+    }
+
+    @Benchmark
+    public String jsonGetUsersResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(usersPage);
+    }
+}
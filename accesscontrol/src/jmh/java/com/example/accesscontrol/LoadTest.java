@@ -0,0 +1,301 @@
+package com.example.accesscontrol;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Closed-loop HTTP load test: boots the whole application with the bench profile on a local
+ * port, seeds {@link BenchmarkDataset}, then lets a fixed number of clients send a weighted
+ * mix of requests back to back. Prints throughput, latency percentiles and error rates per
+ * route and writes the same numbers as JSON.
+ *
+ * <p>Settings are system properties:
+ * <ul>
+ *   <li>{@code load.url} - target an already running instance instead of booting one
+ *       (it must contain the seed dataset)</li>
+ *   <li>{@code load.profiles} - profiles for the booted instance (default bench), e.g. bench,virtual-threads</li>
+ *   <li>{@code load.port} - port for the booted instance (default 0, any free port)</li>
+ *   <li>{@code load.users} - seeded users (default 10000)</li>
+ *   <li>{@code load.clients} - concurrent clients (default 32)</li>
+ *   <li>{@code load.warmup}, {@code load.duration} - seconds (default 10 and 60)</li>
+ *   <li>{@code load.mix} - route weights (default {@code login:20,users:40,group:30,assign:10})</li>
+ *   <li>{@code load.report} - JSON report path (default target/load-report.json)</li>
+ * </ul>
+ *
+ * <pre>mvn -Pbench compile exec:exec@load -Dload.args="-Dload.clients=64 -Dload.duration=120"</pre>
+ */
+public final class LoadTest {
+
+    private static final String ADMIN_EMAIL = "user1@example.com";
+    private static final String ADMIN_PASSWORD = "password1";
+    private static final int ASSIGN_BATCH = 20;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    enum Route {
+        LOGIN("POST /api/auth/login"),
+        USERS("GET /api/users"),
+        GROUP("GET /api/groups/{id}"),
+        ASSIGN("POST /api/users/assign-roles");
+
+        final String label;
+
+        Route(String label) {
+            this.label = label;
+        }
+    }
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final BenchmarkDataset dataset;
+    private String adminToken;
+
+    private LoadTest(String baseUrl, BenchmarkDataset dataset) {
+        this.baseUrl = baseUrl;
+        this.dataset = dataset;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("load.users", 10_000);
+        int clients = Integer.getInteger("load.clients", 32);
+        int warmup = Integer.getInteger("load.warmup", 10);
+        int duration = Integer.getInteger("load.duration", 60);
+        Map<Route, Integer> mix = parseMix(System.getProperty("load.mix", "login:20,users:40,group:30,assign:10"));
+        File report = new File(System.getProperty("load.report", "target/load-report.json"));
+
+        BenchmarkDataset dataset = new BenchmarkDataset(users, Math.max(10, users / 100), 20, 50);
+        ConfigurableApplicationContext context = null;
+        String url = System.getProperty("load.url");
+        if (url == null) {
+            context = new SpringApplicationBuilder(AccesscontrolApplication.class)
+                    .profiles(System.getProperty("load.profiles", "bench").split(","))
+                    .run("--server.port=" + Integer.getInteger("load.port", 0));
+            dataset.seed(context.getBean(JdbcTemplate.class));
+            url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            LoadTest test = new LoadTest(url, dataset);
+            test.adminToken = test.login(ADMIN_EMAIL, ADMIN_PASSWORD);
+
+            System.out.printf("load test %s clients=%d users=%d mix=%s%n", url, clients, users, mix);
+            test.run(clients, warmup, mix);
+            Result result = test.run(clients, duration, mix);
+            result.print();
+            result.write(report);
+        } finally {
+            if (context != null) context.close();
+        }
+    }
+
+    private Result run(int clients, int seconds, Map<Route, Integer> mix) throws InterruptedException {
+        Route[] wheel = mix.entrySet().stream()
+                .flatMap(e -> Collections.nCopies(e.getValue(), e.getKey()).stream())
+                .toArray(Route[]::new);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicReferenceArray<Recorder> recorders = new AtomicReferenceArray<>(clients);
+        CountDownLatch done = new CountDownLatch(clients);
+
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            Thread t = new Thread(() -> {
+                Recorder recorder = new Recorder();
+                try {
+                    while (System.nanoTime() < deadline) {
+                        Route route = wheel[ThreadLocalRandom.current().nextInt(wheel.length)];
+                        long t0 = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = send(route);
+                        } catch (IOException e) {
+                            ok = false;
+                        }
+                        recorder.record(route, System.nanoTime() - t0, ok);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    recorders.set(client, recorder);
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            t.setDaemon(true);
+            t.start();
+        }
+        done.await();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        Recorder total = new Recorder();
+        for (int c = 0; c < clients; c++) total.merge(recorders.get(c));
+        return new Result(total, elapsed);
+    }
+
+    private boolean send(Route route) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest request = switch (route) {
+            case LOGIN -> {
+                // Every fifth seeded user is disabled; pick one of the enabled ones
+                int i = random.nextInt(dataset.users());
+                if (i % 5 == 0) i = i + 1 < dataset.users() ? i + 1 : i - 1;
+                yield post("/api/auth/login", Map.of("email", BenchmarkDataset.email(i),
+                        "password", BenchmarkDataset.PASSWORD), null);
+            }
+            case USERS -> authorized("/api/users?search=seed" + random.nextInt(dataset.users()) + "@&page=0&size=20")
+                    .GET().build();
+            case GROUP -> authorized("/api/groups/" + BenchmarkDataset.groupId(random.nextInt(dataset.groups())))
+                    .GET().build();
+            case ASSIGN -> {
+                int from = random.nextInt(Math.max(1, dataset.users() - ASSIGN_BATCH));
+                List<Long> userIds = new ArrayList<>(ASSIGN_BATCH);
+                for (int i = from; i < Math.min(dataset.users(), from + ASSIGN_BATCH); i++) {
+                    userIds.add(BenchmarkDataset.userId(i));
+                }
+                long roleId = BenchmarkDataset.roleId(2 + random.nextInt(dataset.roles() - 2));
+                yield post("/api/users/assign-roles", Map.of("userIds", userIds, "roleIds", List.of(roleId)), adminToken);
+            }
+        };
+        int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        return status >= 200 && status < 300;
+    }
+
+    private String login(String email, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(post("/api/auth/login", Map.of("email", email, "password", password), null),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("login as " + email + " failed with " + response.statusCode());
+        }
+        return MAPPER.readTree(response.body()).path("token").asText();
+    }
+
+    private HttpRequest post(String path, Object body, String token) throws IOException {
+        HttpRequest.Builder builder = token == null ? HttpRequest.newBuilder(URI.create(baseUrl + path)) : authorized(path);
+        return builder.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + adminToken);
+    }
+
+    static Map<Route, Integer> parseMix(String spec) {
+        Map<Route, Integer> mix = new EnumMap<>(Route.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            if (kv.length != 2) throw new IllegalArgumentException("Invalid load.mix entry: " + part);
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) mix.put(Route.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (mix.isEmpty()) throw new IllegalArgumentException("load.mix has no routes");
+        return mix;
+    }
+
+    /** Raw latencies per route, one instance per client so recording needs no locking. */
+    static final class Recorder {
+        private final Map<Route, long[]> latencies = new EnumMap<>(Route.class);
+        private final Map<Route, Integer> counts = new EnumMap<>(Route.class);
+        private final Map<Route, Integer> errors = new EnumMap<>(Route.class);
+
+        void record(Route route, long nanos, boolean ok) {
+            int n = counts.getOrDefault(route, 0);
+            long[] values = latencies.computeIfAbsent(route, r -> new long[1024]);
+            if (n == values.length) latencies.put(route, values = Arrays.copyOf(values, n * 2));
+            values[n] = nanos;
+            counts.put(route, n + 1);
+            if (!ok) errors.merge(route, 1, Integer::sum);
+        }
+
+        void merge(Recorder other) {
+            for (var e : other.counts.entrySet()) {
+                long[] values = other.latencies.get(e.getKey());
+                for (int i = 0; i < e.getValue(); i++) record(e.getKey(), values[i], true);
+                errors.merge(e.getKey(), other.errors.getOrDefault(e.getKey(), 0), Integer::sum);
+            }
+        }
+    }
+
+    record Result(Recorder recorder, double seconds) {
+
+        List<Map<String, Object>> rows() {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            long[] all = new long[0];
+            int total = 0;
+            int totalErrors = 0;
+            for (Route route : Route.values()) {
+                int n = recorder.counts.getOrDefault(route, 0);
+                if (n == 0) continue;
+                long[] values = Arrays.copyOf(recorder.latencies.get(route), n);
+                int errors = recorder.errors.getOrDefault(route, 0);
+                rows.add(row(route.label, values, errors));
+                all = concat(all, values);
+                total += n;
+                totalErrors += errors;
+            }
+            if (total > 0) rows.add(row("ALL", all, totalErrors));
+            return rows;
+        }
+
+        private Map<String, Object> row(String label, long[] values, int errors) {
+            Arrays.sort(values);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("route", label);
+            row.put("requests", values.length);
+            row.put("throughput", values.length / seconds);
+            row.put("errorRate", (double) errors / values.length);
+            row.put("p50Ms", percentile(values, 50));
+            row.put("p90Ms", percentile(values, 90));
+            row.put("p99Ms", percentile(values, 99));
+            row.put("p999Ms", percentile(values, 99.9));
+            row.put("maxMs", values[values.length - 1] / 1e6);
+            return row;
+        }
+
+        void print() {
+            System.out.printf("%-30s %9s %10s %8s %9s %9s %9s %9s %9s%n",
+                    "route", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (Map<String, Object> r : rows()) {
+                System.out.printf("%-30s %9d %10.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                        r.get("route"), r.get("requests"), r.get("throughput"), (double) r.get("errorRate") * 100,
+                        r.get("p50Ms"), r.get("p90Ms"), r.get("p99Ms"), r.get("p999Ms"), r.get("maxMs"));
+            }
+        }
+
+        void write(File file) throws IOException {
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (dir != null) dir.mkdirs();
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("durationSeconds", seconds);
+            out.put("routes", rows());
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, out);
+            System.out.println("Load report written to " + file);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+        }
+
+        private static long[] concat(long[] a, long[] b) {
+            long[] out = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, out, a.length, b.length);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.accesscontrol;
+
+import com.example.accesscontrol.dto.role.AssignPermissionsToRolesRequest;
+import com.example.accesscontrol.dto.user.assignRolesToUser.AssignRolesRequest;
+import com.example.accesscontrol.dto.user.deassignUsersFromUsers.DeassignRolesRequest;
+import com.example.accesscontrol.service.RoleService;
+import com.example.accesscontrol.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent admins editing the same rows through the service layer. Each admin loops over two
+ * operations: assign and remove its own permission on the dataset's MEMBER role, and assign and
+ * remove its own role on a random batch of users drawn from a range all admins share. The run
+ * is repeated for each admin count; throughput should grow with admins (given the cores) while
+ * conflicts stay at zero and lock retries stay rare.
+ *
+ * <p>Settings are system properties:
+ * <ul>
+ *   <li>{@code stress.admins} - admin counts to run (default 1,2,4,8)</li>
+ *   <li>{@code stress.duration} - seconds per admin count (default 20)</li>
+ *   <li>{@code stress.warmup} - unrecorded seconds at the highest admin count first (default 10)</li>
+ *   <li>{@code stress.users} - seeded users (default 10000)</li>
+ *   <li>{@code stress.shared} - size of the user range the admins share (default 200)</li>
+ *   <li>{@code stress.batch} - users per assign call (default 20)</li>
+ * </ul>
+ *
+ * <pre>mvn -Pbench compile exec:exec@stress -Dstress.args="-Dstress.admins=1,4,16"</pre>
+ */
+public final class MembershipStressTest {
+
+    private MembershipStressTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] adminCounts = Arrays.stream(System.getProperty("stress.admins", "1,2,4,8").split(","))
+                .mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+        int duration = Integer.getInteger("stress.duration", 20);
+        int warmup = Integer.getInteger("stress.warmup", 10);
+        int users = Integer.getInteger("stress.users", 10_000);
+        int shared = Math.min(users, Integer.getInteger("stress.shared", 200));
+        int batch = Math.min(shared, Integer.getInteger("stress.batch", 20));
+
+        BenchmarkDataset dataset = new BenchmarkDataset(users, Math.max(10, users / 100), 20, 50);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AccesscontrolApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .run()) {
+            dataset.seed(context.getBean(JdbcTemplate.class));
+            UserService userService = context.getBean(UserService.class);
+            RoleService roleService = context.getBean(RoleService.class);
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+            new Run(userService, roleService, shared, batch).execute(adminCounts[adminCounts.length - 1], warmup);
+            System.out.printf("membership stress users=%d shared=%d batch=%d duration=%ds%n", users, shared, batch, duration);
+            System.out.printf("%7s %10s %9s %10s %8s  %s%n", "admins", "ops/s", "speedup", "conflicts", "retries", "errors");
+            double single = 0;
+            for (int admins : adminCounts) {
+                double retriesBefore = retries(registry);
+                Run run = new Run(userService, roleService, shared, batch);
+                run.execute(admins, duration);
+                double opsPerSecond = run.ops.sum() / (double) duration;
+                if (single == 0) single = opsPerSecond / admins;
+                System.out.printf("%7d %10.1f %8.2fx %10d %8.0f  %s%n", admins, opsPerSecond,
+                        opsPerSecond / single, run.conflicts.sum(), retries(registry) - retriesBefore, run.errors);
+            }
+        }
+    }
+
+    private static double retries(MeterRegistry registry) {
+        return registry.find("db.lock.retries").tag("outcome", "retried").counters().stream()
+                .mapToDouble(c -> c.count()).sum();
+    }
+
+    private static final class Run {
+        private final UserService userService;
+        private final RoleService roleService;
+        private final int shared;
+        private final int batch;
+        private final LongAdder ops = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final Map<String, Integer> errors = new ConcurrentHashMap<>();
+
+        Run(UserService userService, RoleService roleService, int shared, int batch) {
+            this.userService = userService;
+            this.roleService = roleService;
+            this.shared = shared;
+            this.batch = batch;
+        }
+
+        void execute(int admins, int seconds) throws InterruptedException {
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            CountDownLatch done = new CountDownLatch(admins);
+            for (int a = 0; a < admins; a++) {
+                // Permissions 0..24 belong to the seeded roles, so admin a owns permission 25 + a
+                long permission = BenchmarkDataset.permissionId(25 + a % 25);
+                // Roles 2..19: admins share users but each grants its own role
+                long role = BenchmarkDataset.roleId(2 + a % 18);
+                Thread t = new Thread(() -> {
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            if (ThreadLocalRandom.current().nextBoolean()) {
+                                attempt(() -> togglePermission(permission));
+                            } else {
+                                attempt(() -> toggleUserRole(role));
+                            }
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }, "admin-" + a);
+                t.setDaemon(true);
+                t.start();
+            }
+            done.await();
+        }
+
+        private void attempt(Runnable op) {
+            try {
+                op.run();
+                ops.increment();
+            } catch (org.springframework.dao.ConcurrencyFailureException e) {
+                conflicts.increment();
+                errors.merge(e.getClass().getSimpleName(), 1, Integer::sum);
+            } catch (RuntimeException e) {
+                errors.merge(e.getClass().getSimpleName(), 1, Integer::sum);
+            }
+        }
+
+        private void togglePermission(long permission) {
+            var request = new AssignPermissionsToRolesRequest();
+            request.setRoleId(BenchmarkDataset.roleId(0));
+            request.setPermissionIds(List.of(permission));
+            roleService.assignPermissionsToRoles(List.of(request));
+            roleService.deassignPermissionsFromRoles(List.of(request));
+        }
+
+        private void toggleUserRole(long role) {
+            Set<Long> picked = new HashSet<>();
+            while (picked.size() < batch) {
+                picked.add(BenchmarkDataset.userId(ThreadLocalRandom.current().nextInt(shared)));
+            }
+            // Unsorted on purpose: the services must order ids themselves
+            List<Long> userIds = new ArrayList<>(picked);
+            List<Long> roleIds = List.of(role);
+            userService.assignRolesToUsers(new AssignRolesRequest(userIds, roleIds));
+            var deassign = new DeassignRolesRequest();
+            deassign.setUserIds(userIds);
+            deassign.setRoleIds(roleIds);
+            userService.deassignRolesFromUsers(deassign);
+        }
+    }
+}
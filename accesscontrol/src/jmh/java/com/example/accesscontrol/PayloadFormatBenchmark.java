@@ -0,0 +1,101 @@
+package com.example.accesscontrol;
+
+import com.example.accesscontrol.dto.group.GroupDetailsResponse;
+import com.example.accesscontrol.dto.role.RoleResponse;
+import com.example.accesscontrol.dto.user.assignRolesToUser.AssignRolesRequest;
+import com.example.accesscontrol.dto.user.createUsers.CreateUserRequest;
+import com.example.accesscontrol.dto.user.createUsers.CreateUsersRequest;
+import com.example.accesscontrol.dto.user.getUsers.GetUsersResponse;
+import com.example.accesscontrol.dto.user.getUsers.UserSummaryResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Encode and decode cost of the large request and response bodies in JSON, CBOR and Smile,
+ * using mappers configured like the HTTP message converters. The encoded size of each payload
+ * is printed when its fork starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"createUsers", "usersPage", "assignRoles", "groupDetails"})
+    public String payload;
+
+    private ObjectMapper mapper;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        mapper = switch (format) {
+            case "json" -> builder.build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        value = switch (payload) {
+            case "createUsers" -> createUsers(1_000);
+            case "usersPage" -> usersPage(100);
+            case "assignRoles" -> new AssignRolesRequest(LongStream.rangeClosed(1, 10_000).boxed().toList(),
+                    LongStream.rangeClosed(1, 5).boxed().toList());
+            case "groupDetails" -> groupDetails(5_000, 20);
+            default -> throw new IllegalArgumentException("Unknown payload " + payload);
+        };
+        encoded = mapper.writeValueAsBytes(value);
+        System.out.printf("%n%s %s: %,d bytes%n", payload, format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return mapper.readValue(encoded, value.getClass());
+    }
+
+    private static CreateUsersRequest createUsers(int n) {
+        return new CreateUsersRequest(IntStream.rangeClosed(1, n)
+                .mapToObj(i -> new CreateUserRequest("new.user" + i + "@example.com", "Passw0rd!" + i, i % 10 != 0))
+                .toList());
+    }
+
+    private static GetUsersResponse usersPage(int n) {
+        List<UserSummaryResponse> users = IntStream.rangeClosed(1, n)
+                .mapToObj(i -> new UserSummaryResponse((long) i, BenchmarkDataset.email(i), true,
+                        List.of("MEMBER", "ROLE_" + (i % 7), "ROLE_" + (i % 13))))
+                .toList();
+        return new GetUsersResponse(users, 0, 1_000_000);
+    }
+
+    private static GroupDetailsResponse groupDetails(int users, int roles) {
+        return GroupDetailsResponse.builder()
+                .id(1L)
+                .name("Group 1")
+                .users(IntStream.rangeClosed(1, users)
+                        .mapToObj(i -> new UserSummaryResponse((long) i, BenchmarkDataset.email(i), i % 50 != 0))
+                        .toList())
+                .roles(IntStream.rangeClosed(1, roles)
+                        .mapToObj(i -> new RoleResponse((long) i, "ROLE_" + i))
+                        .toList())
+                .build();
+    }
+}
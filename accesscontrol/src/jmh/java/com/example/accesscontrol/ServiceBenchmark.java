@@ -0,0 +1,139 @@
+package com.example.accesscontrol;
+
+import com.example.accesscontrol.dto.group.GroupDetailsResponse;
+import com.example.accesscontrol.dto.role.CreateRoleRequest;
+import com.example.accesscontrol.dto.user.assignRolesToUser.AssignRolesRequest;
+import com.example.accesscontrol.dto.user.assignRolesToUser.AssignRolesResponse;
+import com.example.accesscontrol.dto.user.createUsers.CreateUserRequest;
+import com.example.accesscontrol.dto.user.createUsers.CreateUsersRequest;
+import com.example.accesscontrol.dto.user.createUsers.CreateUsersResponse;
+import com.example.accesscontrol.dto.user.deassignUsersFromUsers.DeassignRolesRequest;
+import com.example.accesscontrol.dto.user.getUsers.GetUsersResponse;
+import com.example.accesscontrol.service.GroupService;
+import com.example.accesscontrol.service.RoleService;
+import com.example.accesscontrol.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Service-layer operations over a seeded embedded database (H2 in MySQL mode).
+ * Each benchmark reports throughput and sampled latency percentiles (p99 in the JSON);
+ * run with the gc and {@link SqlStatementsProfiler} profilers for bytes/op and statements/op:
+ *
+ * <pre>mvn -Pbench compile exec:exec@services</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    public int users;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private BenchmarkDataset dataset;
+    private UserService userService;
+    private RoleService roleService;
+    private GroupService groupService;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        context = new SpringApplicationBuilder(AccesscontrolApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .run();
+        dataset = new BenchmarkDataset(users, Math.max(10, users / 10_000), 20, 50);
+        dataset.seed(context.getBean(JdbcTemplate.class));
+        userService = context.getBean(UserService.class);
+        roleService = context.getBean(RoleService.class);
+        groupService = context.getBean(GroupService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CreateUsersResponse createUsers() throws Exception {
+        var batch = IntStream.range(0, 10)
+                .mapToObj(i -> CreateUserRequest.builder()
+                        .email("new" + sequence.incrementAndGet() + "@bench.example.com")
+                        .password(BenchmarkDataset.PASSWORD)
+                        .enabled(true)
+                        .build())
+                .toList();
+        return SqlStatementsProfiler.measure(() -> userService.createUsers(new CreateUsersRequest(batch)));
+    }
+
+    // Deassigns again in the same op so every invocation inserts BATCH user_roles rows
+    @Benchmark
+    public AssignRolesResponse assignRolesToUsers() throws Exception {
+        List<Long> userIds = randomUserWindow();
+        List<Long> roleIds = List.of(BenchmarkDataset.roleId(2 + ThreadLocalRandom.current().nextInt(dataset.roles() - 2)));
+        return SqlStatementsProfiler.measure(() -> {
+            var response = userService.assignRolesToUsers(new AssignRolesRequest(userIds, roleIds));
+            var deassign = new DeassignRolesRequest();
+            deassign.setUserIds(userIds);
+            deassign.setRoleIds(roleIds);
+            userService.deassignRolesFromUsers(deassign);
+            return response;
+        });
+    }
+
+    @Benchmark
+    public String deleteRoles(DisposableRole role) throws Exception {
+        return SqlStatementsProfiler.measure(() -> roleService.deleteRoles(List.of(role.id)));
+    }
+
+    @Benchmark
+    public GetUsersResponse getUsersSearch() throws Exception {
+        String q = "seed" + ThreadLocalRandom.current().nextInt(users) + "@";
+        return SqlStatementsProfiler.measure(() -> userService.getUsers(q, 0, 20));
+    }
+
+    @Benchmark
+    public GroupDetailsResponse getGroupDetails() throws Exception {
+        long groupId = BenchmarkDataset.groupId(ThreadLocalRandom.current().nextInt(dataset.groups()));
+        return SqlStatementsProfiler.measure(() -> groupService.getGroupDetails(groupId));
+    }
+
+    private List<Long> randomUserWindow() {
+        int from = ThreadLocalRandom.current().nextInt(Math.max(1, users - BATCH));
+        return LongStream.range(from, Math.min(users, from + BATCH)).map(i -> BenchmarkDataset.userId((int) i)).boxed().toList();
+    }
+
+    /** A role with permissions, a group and {@value #BATCH} users, rebuilt before every deleteRoles call. */
+    @State(Scope.Thread)
+    public static class DisposableRole {
+        long id;
+
+        @Setup(Level.Invocation)
+        public void create(ServiceBenchmark bench) {
+            String name = "DISPOSABLE_" + bench.sequence.incrementAndGet();
+            var request = new CreateRoleRequest();
+            request.setName(name);
+            request.setPermissionIds(List.of(BenchmarkDataset.permissionId(0), BenchmarkDataset.permissionId(1)));
+            bench.roleService.createRoles(List.of(request));
+            id = bench.context.getBean(JdbcTemplate.class)
+                    .queryForObject("SELECT id FROM roles WHERE name = ?", Long.class, name);
+            bench.userService.assignRolesToUsers(new AssignRolesRequest(bench.randomUserWindow(), List.of(id)));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.accesscontrol;
+
+import com.example.accesscontrol.config.RequestSqlStats;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports sql.statements.norm (statements per operation). Only statements issued inside
+ * {@link #measure} are counted, so per-invocation setup does not leak into the number.
+ *
+ * <pre>-prof com.example.accesscontrol.SqlStatementsProfiler</pre>
+ */
+public class SqlStatementsProfiler implements InternalProfiler {
+
+    private static final LongAdder STATEMENTS = new LongAdder();
+
+    private long before;
+
+    public static <T> T measure(Callable<T> op) throws Exception {
+        RequestSqlStats stats = RequestSqlStats.begin();
+        try {
+            return op.call();
+        } finally {
+            RequestSqlStats.end();
+            STATEMENTS.add(stats.getStatements());
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "SQL statements per operation";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        before = STATEMENTS.sum();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+                                                       IterationParams iterationParams,
+                                                       IterationResult result) {
+        long ops = result.getMetadata().getMeasuredOps();
+        double perOp = ops == 0 ? Double.NaN : (STATEMENTS.sum() - before) / (double) ops;
+        return List.of(new ScalarResult("sql.statements.norm", perOp, "statements/op", AggregationPolicy.AVG));
+    }
+}
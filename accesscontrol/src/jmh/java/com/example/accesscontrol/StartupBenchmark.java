@@ -0,0 +1,153 @@
+package com.example.accesscontrol;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Starts the application in a fresh JVM several times and records, per run, how long it takes
+ * until the port answers and until the first successful login. The result file uses the JMH
+ * JSON layout (single-shot mode, milliseconds) so {@link BenchmarkComparison} can compare releases.
+ *
+ * <p>Settings are system properties:
+ * <ul>
+ *   <li>{@code startup.runs} - number of cold starts (default 5)</li>
+ *   <li>{@code startup.jar} - start this jar with -jar instead of the current classpath,
+ *       needed for an AppCDS archive</li>
+ *   <li>{@code startup.jvmArgs} - extra JVM options, e.g. -XX:SharedArchiveFile=target/cds/application.jsa</li>
+ *   <li>{@code startup.appArgs} - application arguments (default --spring.profiles.active=bench)</li>
+ *   <li>{@code startup.email}, {@code startup.password} - login used as the first request</li>
+ *   <li>{@code startup.timeout} - seconds to wait per run (default 120)</li>
+ *   <li>{@code startup.result} - result file (default target/startup-results.json)</li>
+ * </ul>
+ */
+public final class StartupBenchmark {
+
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(500)).build();
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("startup.runs", 5);
+        long timeoutMs = Integer.getInteger("startup.timeout", 120) * 1000L;
+        String appArgs = System.getProperty("startup.appArgs", "--spring.profiles.active=bench");
+        String body = new ObjectMapper().writeValueAsString(Map.of(
+                "email", System.getProperty("startup.email", "user1@example.com"),
+                "password", System.getProperty("startup.password", "password1")));
+        File result = new File(System.getProperty("startup.result", "target/startup-results.json"));
+
+        List<Long> portOpen = new ArrayList<>();
+        List<Long> firstLogin = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            int port = freePort();
+            List<String> command = command(port, appArgs);
+            File log = new File(result.getAbsoluteFile().getParentFile(), "startup-run-" + run + ".log");
+
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+            try {
+                long open = -1;
+                long login = -1;
+                while (login < 0) {
+                    if (!process.isAlive()) throw new IllegalStateException("application exited, see " + log);
+                    if ((System.nanoTime() - start) / 1_000_000 > timeoutMs) {
+                        throw new IllegalStateException("no successful login within " + timeoutMs + " ms, see " + log);
+                    }
+                    Integer status = loginStatus(port, body);
+                    long elapsed = (System.nanoTime() - start) / 1_000_000;
+                    if (status != null && open < 0) open = elapsed;
+                    if (status != null && status == 200) login = elapsed;
+                    else Thread.sleep(20);
+                }
+                portOpen.add(open);
+                firstLogin.add(login);
+                System.out.printf("run %d: port open %d ms, first successful login %d ms%n", run, open, login);
+            } finally {
+                process.destroy();
+                process.waitFor();
+            }
+        }
+
+        List<Map<String, Object>> out = List.of(
+                entry("startup.timeToPortOpen", portOpen),
+                entry("startup.timeToFirstSuccessfulRequest", firstLogin));
+        File dir = result.getAbsoluteFile().getParentFile();
+        if (dir != null) dir.mkdirs();
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(result, out);
+        for (Map<String, Object> e : out) {
+            System.out.printf("%-40s %s ms%n", e.get("benchmark"), ((Map<?, ?>) e.get("primaryMetric")).get("score"));
+        }
+        System.out.println("Startup results written to " + result);
+    }
+
+    private static List<String> command(int port, String appArgs) {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-Dspring.devtools.restart.enabled=false");
+        String jvmArgs = System.getProperty("startup.jvmArgs", "");
+        if (!jvmArgs.isBlank()) command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+
+        String jar = System.getProperty("startup.jar");
+        if (jar != null) {
+            command.add("-jar");
+            command.add(jar);
+        } else {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(AccesscontrolApplication.class.getName());
+        }
+        command.add("--server.port=" + port);
+        if (!appArgs.isBlank()) command.addAll(Arrays.asList(appArgs.trim().split("\\s+")));
+        return command;
+    }
+
+    /** HTTP status of a login attempt, or null while nothing listens on the port. */
+    private static Integer loginStatus(int port, String body) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            return HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Object> entry(String name, List<Long> samples) {
+        List<Long> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        double median = sorted.size() % 2 == 1
+                ? sorted.get(sorted.size() / 2)
+                : (sorted.get(sorted.size() / 2 - 1) + sorted.get(sorted.size() / 2)) / 2.0;
+
+        Map<String, Object> metric = new LinkedHashMap<>();
+        metric.put("score", median);
+        metric.put("scoreUnit", "ms");
+        metric.put("min", sorted.get(0));
+        metric.put("max", sorted.get(sorted.size() - 1));
+        metric.put("rawData", List.of(samples));
+
+        Map<String, Object> e = new LinkedHashMap<>();
+        e.put("benchmark", StartupBenchmark.class.getName() + "." + name);
+        e.put("mode", "ss");
+        e.put("primaryMetric", metric);
+        return e;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
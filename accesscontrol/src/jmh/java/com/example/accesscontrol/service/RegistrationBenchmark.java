@@ -0,0 +1,65 @@
+package com.example.accesscontrol.service;
+
+import com.example.accesscontrol.AccesscontrolApplication;
+import com.example.accesscontrol.dto.auth.AuthRequest;
+import com.example.accesscontrol.dto.auth.RegisterAuthResponse;
+import com.example.accesscontrol.exception.EmailAlreadyUsedException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent signups through {@link AuthService#register} against the embedded bench database.
+ * The bench profile lowers bcrypt strength so the database path is not hidden behind hashing;
+ * compare runs at the same thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(8)
+public class RegistrationBenchmark {
+
+    private static final String TAKEN_EMAIL = "taken@bench.example.com";
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private AuthService authService;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        context = new SpringApplicationBuilder(AccesscontrolApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .run();
+        authService = context.getBean(AuthService.class);
+        authService.register(new AuthRequest(TAKEN_EMAIL, "password1"));
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        context.close();
+    }
+
+    @Benchmark
+    public RegisterAuthResponse registerNewEmail() {
+        long n = sequence.incrementAndGet();
+        return authService.register(new AuthRequest("signup" + n + "@bench.example.com", "password" + n));
+    }
+
+    @Benchmark
+    public boolean registerTakenEmail() {
+        try {
+            authService.register(new AuthRequest(TAKEN_EMAIL, "password1"));
+            return false;
+        } catch (EmailAlreadyUsedException expected) {
+            return true;
+        }
+    }
+}
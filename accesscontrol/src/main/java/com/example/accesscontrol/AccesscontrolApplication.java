@@ -2,10 +2,14 @@ package com.example.accesscontrol;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class AccesscontrolApplication {
     public static void main(String[] args) {
-        SpringApplication.run(AccesscontrolApplication.class, args);
+        SpringApplication app = new SpringApplication(AccesscontrolApplication.class);
+        // Startup steps, including the seed, are served by /actuator/startup
+        app.setApplicationStartup(new BufferingApplicationStartup(2048));
+        app.run(args);
     }
 }
@@ -0,0 +1,31 @@
+package com.example.accesscontrol.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "accesscontrol.bulk-jobs")
+public class BulkJobProperties {
+
+    /** Worker threads shared by all jobs; bounds the connections jobs can hold at once. */
+    private int workers = 4;
+
+    /** Chunks of one job in flight at the same time, so a big job cannot take every worker. */
+    private int parallelism = 2;
+
+    /** Ids per chunk; each chunk is one transaction. */
+    private int chunkSize = 500;
+
+    /** Failed chunks listed in the status response. */
+    private int reportedFailures = 100;
+
+    /** How often each instance renews the heartbeat of its unfinished jobs and looks for orphans. */
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    /** An unfinished job whose heartbeat is older than this lost its instance and is marked FAILED. */
+    private Duration lease = Duration.ofMinutes(2);
+}
@@ -0,0 +1,45 @@
+package com.example.accesscontrol.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "accesscontrol.change-log")
+public class ChangeLogProperties {
+
+    /** Entries older than this are purged; consumers further behind are told to reset. */
+    private Duration retention = Duration.ofHours(24);
+
+    private Duration purgeInterval = Duration.ofMinutes(10);
+
+    /** Upper bound on entries per poll. */
+    private int maxBatch = 1000;
+
+    private Stream stream = new Stream();
+
+    @Getter
+    @Setter
+    public static class Stream {
+
+        /** How often the table is read while anyone is subscribed; local commits wake it sooner. */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /** Entries queued per subscriber; one that falls further behind is fed from the table until it catches up. */
+        private int bufferSize = 1024;
+
+        /** A subscriber still catching up after this long is disconnected and has to resume. */
+        private Duration maxLag = Duration.ofMinutes(1);
+
+        private int maxSubscribers = 200;
+
+        /** Comment lines sent to idle subscribers so proxies keep the connection open and dead peers are noticed. */
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        /** Subscriptions end after this and the client reconnects with Last-Event-ID. */
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+}
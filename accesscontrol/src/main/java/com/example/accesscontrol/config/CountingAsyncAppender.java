@@ -0,0 +1,79 @@
+package com.example.accesscontrol.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback {@link AsyncAppender} that counts the events it discards. When the queue is nearly
+ * full, DEBUG and TRACE are dropped instead of blocking the caller, and so is INFO from the
+ * loggers configured as {@code <sampleable>}, such as the per-request line. Everything else,
+ * failure lines included, waits for space. With {@code neverBlock} a full queue drops the event
+ * instead, and that is counted too.
+ * Instances register themselves by name so {@link LoggingConfig} can export the counts.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private static final Map<String, CountingAsyncAppender> APPENDERS = new ConcurrentHashMap<>();
+
+    private final LongAdder dropped = new LongAdder();
+    private final List<String> sampleable = new CopyOnWriteArrayList<>();
+
+    /** Logger name, or a prefix ending in a dot, whose INFO events may be dropped. */
+    public void addSampleable(String logger) {
+        sampleable.add(logger.strip());
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        if (isStarted()) APPENDERS.put(getName(), this);
+    }
+
+    @Override
+    public void stop() {
+        APPENDERS.remove(getName(), this);
+        super.stop();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Checked up front because the base class drops silently when offer() fails
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            dropped.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    // Only consulted once the queue is below the discarding threshold
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        Level level = event.getLevel();
+        boolean discard = level.toInt() < Level.INFO_INT
+                || level.toInt() == Level.INFO_INT && isSampleable(event.getLoggerName());
+        if (discard) dropped.increment();
+        return discard;
+    }
+
+    private boolean isSampleable(String logger) {
+        for (String s : sampleable) {
+            if (s.endsWith(".") ? logger.startsWith(s) : logger.equals(s)) return true;
+        }
+        return false;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public static Map<String, CountingAsyncAppender> registered() {
+        return APPENDERS;
+    }
+}
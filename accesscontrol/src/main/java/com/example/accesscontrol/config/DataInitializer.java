@@ -3,23 +3,34 @@ package com.example.accesscontrol.config;
 import com.example.accesscontrol.entity.Group;
 import com.example.accesscontrol.entity.Permission;
 import com.example.accesscontrol.entity.Role;
+import com.example.accesscontrol.entity.SeedVersion;
 import com.example.accesscontrol.entity.User;
 import com.example.accesscontrol.repository.GroupRepository;
 import com.example.accesscontrol.repository.PermissionRepository;
 import com.example.accesscontrol.repository.RoleRepository;
+import com.example.accesscontrol.repository.SeedVersionRepository;
 import com.example.accesscontrol.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 @Configuration
+@Profile("!synthetic")
+@ConditionalOnProperty(name = "accesscontrol.seed.enabled", havingValue = "true", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class DataInitializer implements CommandLineRunner {
@@ -28,7 +39,19 @@ public class DataInitializer implements CommandLineRunner {
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
     private final GroupRepository groupRepository;
+    private final SeedVersionRepository seedVersionRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationStartup applicationStartup;
+    private final PlatformTransactionManager transactionManager;
+    private final TenantDatabases databases;
+
+    /** Every tenant listed gets the same default data, recorded separately; each must be a known tenant. */
+    @Value("${accesscontrol.seed.tenants:default}")
+    private List<String> tenants;
+
+    // Bump SEED_VERSION whenever the default data below changes
+    private static final String SEED_NAME = "default-data";
+    private static final int SEED_VERSION = 1;
 
     private static final List<String> ROLE_NAMES = List.of("ADMIN", "MEMBER");
 
@@ -42,15 +65,31 @@ public class DataInitializer implements CommandLineRunner {
     private static final List<String> GROUP_NAMES = List.of("Engineering", "Marketing", "HR", "Students", "Staff");
 
     @Override
-    @Transactional
     public void run(String... args) {
-        final String sentinelEmail = "user1@local";
-        if (userRepository.findByEmail(sentinelEmail).isPresent()) {
-            log.info("DataInitializer: seed data already present. Skipping.");
+        for (String tenant : tenants) {
+            if (!databases.isKnown(tenant)) {
+                throw new IllegalStateException("Seed tenant '" + tenant + "' is not in accesscontrol.tenancy");
+            }
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        // Bound before the transaction starts, so it runs on the tenant's database
+        for (String tenant : tenants) {
+            TenantContext.runAs(tenant, () -> tx.executeWithoutResult(s -> seed(tenant)));
+        }
+    }
+
+    private void seed(String tenant) {
+        String seedName = TenantContext.DEFAULT.equals(tenant) ? SEED_NAME : SEED_NAME + ":" + tenant;
+        var applied = seedVersionRepository.findById(seedName);
+        if (applied.isPresent() && applied.get().getVersion() >= SEED_VERSION) {
+            log.info("DataInitializer: seed version {} already applied for tenant {}. Skipping.",
+                    applied.get().getVersion(), tenant);
             return;
         }
 
-        log.info("DataInitializer: seeding default data…");
+        log.info("DataInitializer: applying seed version {} for tenant {}…", SEED_VERSION, tenant);
+        StartupStep step = applicationStartup.start("accesscontrol.seed");
+        long start = System.currentTimeMillis();
 
         Map<String, Role> roles = ensureRoles(ROLE_NAMES);
         Map<String, Permission> perms = ensurePermissions(PERMISSION_NAMES);
@@ -58,93 +97,107 @@ public class DataInitializer implements CommandLineRunner {
 
         wireRolePermissions(roles, perms);
 
-        List<User> users = IntStream.rangeClosed(1, 10)
-                .mapToObj(i -> {
-                    String email = "user" + i + "@example.com";
-                    String pwd = "password" + i;
-                    boolean enabled = (i % 2 == 0);
-                    if (i == 1) enabled = true;
-                    return ensureUser(email, pwd, enabled);
-                })
-                .collect(Collectors.toList());
+        List<User> users = ensureUsers(10);
 
         User admin = users.get(0);
         addUserRole(admin, roles.get("ADMIN"));
         users.forEach(u -> addUserRole(u, roles.get("MEMBER")));
-        userRepository.saveAll(users);
 
         List<Group> groupList = new ArrayList<>(groups.values());
         for (int i = 0; i < users.size(); i++) {
             addUserGroup(users.get(i), groupList.get(i % groupList.size()));
         }
-        userRepository.saveAll(users);
 
         for (Group g : groupList) {
             addGroupRole(g, roles.get("MEMBER"));
         }
-        roleRepository.saveAll(List.of(roles.get("ADMIN"), roles.get("MEMBER")));
 
-        log.info("DataInitializer: seeding complete.");
+        seedVersionRepository.save(SeedVersion.builder()
+                .name(seedName)
+                .version(SEED_VERSION)
+                .appliedAt(Instant.now())
+                .build());
+
+        step.tag("version", String.valueOf(SEED_VERSION)).tag("tenant", tenant).end();
+        log.info("DataInitializer: seeding complete tenant={} version={} durationMs={}",
+                tenant, SEED_VERSION, System.currentTimeMillis() - start);
     }
 
 
-    private Map<String, Role> ensureRoles(Collection<String> names) {
-        Map<String, Role> out = new LinkedHashMap<>();
-        for (String n : names) {
-            Role r = roleRepository.findByName(n)
-                    .orElseGet(() -> roleRepository.save(Role.builder().name(n).build()));
-            out.put(n, r);
-        }
+    private Map<String, Role> ensureRoles(List<String> names) {
+        Map<String, Role> out = roleRepository.findByNameIn(names).stream()
+                .collect(Collectors.toMap(Role::getName, r -> r, (a, b) -> a, LinkedHashMap::new));
+
+        List<Role> missing = names.stream()
+                .filter(n -> !out.containsKey(n))
+                .map(n -> Role.builder().name(n).build())
+                .toList();
+        roleRepository.saveAll(missing).forEach(r -> out.put(r.getName(), r));
         return out;
     }
 
-    private Map<String, Permission> ensurePermissions(Collection<String> names) {
-        Set<String> lower = names.stream().map(s -> s.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
-        List<Permission> existing = permissionRepository.findByNameInIgnoreCase(lower);
-
-        Map<String, Permission> byName = existing.stream()
-                .collect(Collectors.toMap(Permission::getName, p -> p, (a, b) -> a, LinkedHashMap::new));
+    private Map<String, Permission> ensurePermissions(List<String> names) {
+        Map<String, Permission> byLower = permissionRepository.findByNameInIgnoreCase(lower(names)).stream()
+                .collect(Collectors.toMap(p -> p.getName().toLowerCase(Locale.ROOT), p -> p, (a, b) -> a));
 
-        for (String n : names) {
-            boolean exists = byName.keySet().stream().anyMatch(x -> x.equalsIgnoreCase(n));
-            if (!exists) {
-                Permission saved = permissionRepository.save(Permission.builder().name(n).build());
-                byName.put(saved.getName(), saved);
-            }
-        }
+        List<Permission> missing = names.stream()
+                .filter(n -> !byLower.containsKey(n.toLowerCase(Locale.ROOT)))
+                .map(n -> Permission.builder().name(n).build())
+                .toList();
+        permissionRepository.saveAll(missing).forEach(p -> byLower.put(p.getName().toLowerCase(Locale.ROOT), p));
 
         Map<String, Permission> out = new LinkedHashMap<>();
-        byName.values().forEach(p -> out.put(p.getName(), p));
+        names.forEach(n -> {
+            Permission p = byLower.get(n.toLowerCase(Locale.ROOT));
+            out.put(p.getName(), p);
+        });
         return out;
     }
 
-    private Map<String, Group> ensureGroups(Collection<String> names) {
-        Set<String> lower = names.stream().map(s -> s.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
-        List<Group> existing = groupRepository.findByNameInIgnoreCase(lower);
+    private Map<String, Group> ensureGroups(List<String> names) {
+        Map<String, Group> byLower = groupRepository.findByNameInIgnoreCase(lower(names)).stream()
+                .collect(Collectors.toMap(g -> g.getName().toLowerCase(Locale.ROOT), g -> g, (a, b) -> a));
 
-        Map<String, Group> byName = existing.stream()
-                .collect(Collectors.toMap(Group::getName, g -> g, (a, b) -> a, LinkedHashMap::new));
-
-        for (String n : names) {
-            boolean exists = byName.keySet().stream().anyMatch(x -> x.equalsIgnoreCase(n));
-            if (!exists) {
-                Group saved = groupRepository.save(Group.builder().name(n).build());
-                byName.put(saved.getName(), saved);
-            }
-        }
+        List<Group> missing = names.stream()
+                .filter(n -> !byLower.containsKey(n.toLowerCase(Locale.ROOT)))
+                .map(n -> Group.builder().name(n).build())
+                .toList();
+        groupRepository.saveAll(missing).forEach(g -> byLower.put(g.getName().toLowerCase(Locale.ROOT), g));
 
         Map<String, Group> out = new LinkedHashMap<>();
-        byName.values().forEach(g -> out.put(g.getName(), g));
+        names.forEach(n -> {
+            Group g = byLower.get(n.toLowerCase(Locale.ROOT));
+            out.put(g.getName(), g);
+        });
         return out;
     }
 
-    private User ensureUser(String email, String rawPassword, boolean enabled) {
-        return userRepository.findByEmail(email).orElseGet(() ->
-                userRepository.save(User.builder()
-                        .email(email)
-                        .password(passwordEncoder.encode(rawPassword))
-                        .enabled(enabled)
-                        .build()));
+    private List<User> ensureUsers(int count) {
+        List<String> emails = IntStream.rangeClosed(1, count).mapToObj(i -> "user" + i + "@example.com").toList();
+        Map<String, User> existing = userRepository.findAllByEmailIn(emails).stream()
+                .collect(Collectors.toMap(User::getEmail, u -> u, (a, b) -> a));
+
+        List<User> users = new ArrayList<>(count);
+        List<User> missing = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            User user = existing.get(emails.get(i - 1));
+            if (user == null) {
+                // Only new users pay for a bcrypt encode
+                user = User.builder()
+                        .email(emails.get(i - 1))
+                        .password(passwordEncoder.encode("password" + i))
+                        .enabled(i == 1 || i % 2 == 0)
+                        .build();
+                missing.add(user);
+            }
+            users.add(user);
+        }
+        userRepository.saveAll(missing);
+        return users;
+    }
+
+    private static Set<String> lower(Collection<String> names) {
+        return names.stream().map(s -> s.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
     }
 
     private void wireRolePermissions(Map<String, Role> roles, Map<String, Permission> perms) {
@@ -152,13 +205,11 @@ public class DataInitializer implements CommandLineRunner {
         Role member = roles.get("MEMBER");
 
         admin.getPermissions().addAll(perms.values());
-        roleRepository.save(admin);
 
         List<Permission> memberView = perms.values().stream()
                 .filter(p -> p.getName().endsWith("_VIEW") || p.getName().equals("PERMISSION_VIEW"))
                 .toList();
         member.getPermissions().addAll(memberView);
-        roleRepository.save(member);
     }
 
     private void addUserRole(User user, Role role) {
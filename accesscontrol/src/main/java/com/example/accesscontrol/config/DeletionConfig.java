@@ -0,0 +1,9 @@
+package com.example.accesscontrol.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(DeletionProperties.class)
+public class DeletionConfig {
+}
@@ -0,0 +1,27 @@
+package com.example.accesscontrol.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "accesscontrol.deletion")
+public class DeletionProperties {
+
+    /**
+     * Deletes only mark users, roles, groups and permissions as deleted and return; their
+     * assignments and rows are removed afterwards by the purger. Off deletes everything inline.
+     */
+    private boolean soft = false;
+
+    private Duration purgeInterval = Duration.ofSeconds(30);
+
+    /** Rows removed per transaction, join rows and entities alike. */
+    private int chunkSize = 500;
+
+    /** Sleep between chunks, leaving the database to regular traffic. */
+    private Duration pause = Duration.ofMillis(100);
+}
@@ -0,0 +1,25 @@
+package com.example.accesscontrol.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "accesscontrol.email-filter")
+public class EmailFilterProperties {
+
+    /** Off, every new or changed email is looked up before it is written. */
+    private boolean enabled = true;
+
+    /** Emails the filter is sized for; it grows on rebuild if there are more. */
+    private int expectedEmails = 100_000;
+
+    /** Share of new emails that are still looked up. */
+    private double falsePositiveRate = 0.01;
+
+    /** How often the filter is rebuilt from the table, picking up emails taken on other nodes. */
+    private Duration rebuildInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,62 @@
+package com.example.accesscontrol.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded retry for {@link RetryOnLockFailure} methods. Ordered just outside the transaction
+ * interceptor, so every attempt runs in a fresh transaction. Backoff doubles per attempt with
+ * full jitter, which keeps two deadlocked callers from colliding again in lockstep.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class LockRetryAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${accesscontrol.lock-retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${accesscontrol.lock-retry.backoff:20ms}")
+    private Duration backoff;
+
+    @Around("@annotation(com.example.accesscontrol.config.RetryOnLockFailure)")
+    public Object retry(ProceedingJoinPoint pjp) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) return pjp.proceed();
+
+        String method = pjp.getSignature().getDeclaringType().getSimpleName() + "." + pjp.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return pjp.proceed();
+            } catch (PessimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("db.lock.retries", "method", method, "outcome", "exhausted").increment();
+                    log.warn("db.lock.retry exhausted method={} attempts={} reason={}",
+                            method, attempt, ex.getClass().getSimpleName());
+                    throw ex;
+                }
+                meterRegistry.counter("db.lock.retries", "method", method, "outcome", "retried").increment();
+                long sleepMs = ThreadLocalRandom.current().nextLong((backoff.toMillis() << (attempt - 1)) + 1);
+                log.info("db.lock.retry method={} attempt={} sleepMs={} reason={}",
+                        method, attempt, sleepMs, ex.getClass().getSimpleName());
+                Thread.sleep(sleepMs);
+            }
+        }
+    }
+}
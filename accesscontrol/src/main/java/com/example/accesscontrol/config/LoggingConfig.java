@@ -0,0 +1,28 @@
+package com.example.accesscontrol.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(LoggingProperties.class)
+public class LoggingConfig {
+
+    // Logback starts before the context, so the async appenders are already registered here
+    @Bean
+    public MeterBinder asyncLogAppenderMetrics() {
+        return registry -> CountingAsyncAppender.registered().forEach((name, appender) -> {
+            FunctionCounter.builder("logging.events.dropped", appender, CountingAsyncAppender::getDroppedCount)
+                    .description("Log events discarded because the async queue was full")
+                    .tag("appender", name)
+                    .register(registry);
+            Gauge.builder("logging.queue.remaining", appender, CountingAsyncAppender::getRemainingCapacity)
+                    .description("Free slots in the async log queue")
+                    .tag("appender", name)
+                    .register(registry);
+        });
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.accesscontrol.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "accesscontrol.logging")
+public class LoggingProperties {
+
+    /** Share of successful "http request" lines that are logged; failures are always logged, at WARN. */
+    private double requestSampleRate = 1.0;
+}
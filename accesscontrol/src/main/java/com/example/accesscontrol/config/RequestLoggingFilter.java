@@ -1,17 +1,28 @@
 package com.example.accesscontrol.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.event.Level;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 @Component
@@ -19,6 +30,10 @@ import java.io.IOException;
 public class RequestLoggingFilter extends OncePerRequestFilter {
 
     private final logs logsMasker;
+    private final SqlStatsProperties sqlStatsProperties;
+    private final LoggingProperties loggingProperties;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -29,13 +44,130 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null || auth.getName() == null) ? "anonymous" : auth.getName();
 
+        RequestSqlStats sql = sqlStatsProperties.isEnabled() ? RequestSqlStats.begin() : null;
+        // Headers can only be added after the handler ran, so the body is held back until then
+        var wrapper = (sql != null && sqlStatsProperties.isResponseHeaders())
+                ? new SyncCachingResponseWrapper(request, response) : null;
+
         try {
-            chain.doFilter(request, response);
+            chain.doFilter(request, wrapper == null ? response : wrapper);
         } finally {
-            long ms = System.currentTimeMillis() - start;
-            int status = response.getStatus();
-            log.info("http request path={} status={} durationMs={} actor={}",
-                    path, status, ms, logsMasker.mask(actor));
+            if (sql != null) RequestSqlStats.end();
+            if (request.isAsyncStarted()) {
+                // Streams such as /api/changes/stream are logged when they end, without SQL headers
+                if (wrapper != null) wrapper.copyBodyToResponse();
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        complete(path, start, response.getStatus(), actor, sql);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                complete(path, start, response.getStatus(), actor, sql);
+                if (wrapper != null) {
+                    wrapper.setHeader("X-Sql-Statements", String.valueOf(sql.getStatements()));
+                    wrapper.setHeader("X-Sql-Entity-Loads", String.valueOf(sql.getEntityLoads()));
+                    wrapper.setHeader("X-Sql-Collection-Fetches", String.valueOf(sql.getCollectionFetches()));
+                    wrapper.copyBodyToResponse();
+                }
+            }
+        }
+    }
+
+    // For async requests sql only covers the first dispatch, the one that opened the stream
+    private void complete(String path, long start, int status, String actor, RequestSqlStats sql) {
+        long ms = System.currentTimeMillis() - start;
+        if (shouldLog(status)) {
+            // Failures go out at WARN, which the async appenders never drop; only INFO is sampleable
+            Level level = status >= 400 ? Level.WARN : Level.INFO;
+            if (sql == null) {
+                log.atLevel(level).log("http request path={} status={} durationMs={} actor={}",
+                        path, status, ms, logsMasker.mask(actor));
+            } else {
+                log.atLevel(level).log("http request path={} status={} durationMs={} sqlStatements={} entityLoads={} collectionFetches={} actor={}",
+                        path, status, ms, sql.getStatements(), sql.getEntityLoads(), sql.getCollectionFetches(),
+                        logsMasker.mask(actor));
+            }
+        }
+        if (sql != null) checkBudget(path, sql);
+    }
+
+    // Failed requests are always logged; successful ones only at the configured rate
+    private boolean shouldLog(int status) {
+        double rate = loggingProperties.getRequestSampleRate();
+        if (status >= 400 || rate >= 1.0) return true;
+        if (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate) return true;
+        Counter.builder("logging.events.sampled")
+                .description("Successful request log lines skipped by sampling")
+                .tag("event", "http_request")
+                .register(meterRegistry)
+                .increment();
+        return false;
+    }
+
+    private void checkBudget(String path, RequestSqlStats sql) {
+        int budget = budgetFor(path);
+        if (budget > 0 && sql.getStatements() > budget) {
+            log.warn("http request sql_budget_exceeded path={} sqlStatements={} budget={} collectionFetches={}",
+                    path, sql.getStatements(), budget, sql.getCollectionFetches());
+        }
+
+        int threshold = sqlStatsProperties.getRepeatThreshold();
+        if (threshold > 0) {
+            sql.mostRepeatedShape()
+                    .filter(e -> e.getValue() > threshold)
+                    .ifPresent(e -> log.warn("http request sql_repeated_query path={} count={} threshold={} sql={}",
+                            path, e.getValue(), threshold, e.getKey()));
+        }
+    }
+
+    private int budgetFor(String path) {
+        for (Map.Entry<String, Integer> e : sqlStatsProperties.getBudgets().entrySet()) {
+            String[] key = e.getKey().split(" ", 2);
+            String[] req = path.split(" ", 2);
+            if (key.length == 2 && key[0].equalsIgnoreCase(req[0]) && pathMatcher.match(key[1], req[1])) {
+                return e.getValue();
+            }
+        }
+        return sqlStatsProperties.getDefaultBudget();
+    }
+
+    /** Caches the body until the handler returns, unless the request went async: then writes go straight out. */
+    private static final class SyncCachingResponseWrapper extends ContentCachingResponseWrapper {
+
+        private final HttpServletRequest request;
+
+        SyncCachingResponseWrapper(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return request.isAsyncStarted() ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return request.isAsyncStarted() ? getResponse().getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (request.isAsyncStarted()) getResponse().flushBuffer();
+            else super.flushBuffer();
         }
     }
 }
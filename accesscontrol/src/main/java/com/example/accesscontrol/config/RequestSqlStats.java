@@ -0,0 +1,77 @@
+package com.example.accesscontrol.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate activity seen by the current request thread. Opened and closed by
+ * {@link RequestLoggingFilter}; fed by the hooks registered in {@link SqlStatsConfig}.
+ */
+public final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private int statements;
+    private int entityLoads;
+    private int collectionFetches;
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    private RequestSqlStats() {
+    }
+
+    public static RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static void onStatement(String sql) {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats == null) return;
+        stats.statements++;
+        stats.shapes.merge(shape(sql), 1, Integer::sum);
+    }
+
+    static void onEntityLoad() {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) stats.entityLoads++;
+    }
+
+    static void onCollectionFetch() {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) stats.collectionFetches++;
+    }
+
+    // Same statement with different literals or IN-list sizes counts as one shape
+    static String shape(String sql) {
+        String s = IN_LIST.matcher(sql).replaceAll("(?)");
+        s = NUMBER.matcher(s).replaceAll("?");
+        return WHITESPACE.matcher(s).replaceAll(" ").trim();
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    public int getCollectionFetches() {
+        return collectionFetches;
+    }
+
+    public Optional<Map.Entry<String, Integer>> mostRepeatedShape() {
+        return shapes.entrySet().stream().max(Map.Entry.comparingByValue());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.accesscontrol.config;
+
+import java.lang.annotation.*;
+
+/**
+ * Re-runs a transactional service method when the database picks it as a deadlock victim or a
+ * lock wait times out. Only applies when the method starts its own transaction; inside a
+ * caller's transaction the failure propagates, since that transaction is already doomed.
+ * Handled by {@link LockRetryAspect}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnLockFailure {
+}
@@ -0,0 +1,48 @@
+package com.example.accesscontrol.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks Hibernate into {@link RequestSqlStats}: a statement inspector for executed SQL and
+ * event listeners for entity loads and lazy collection initialization. The same inspector
+ * feeds {@link TableVersions}, since Hibernate accepts only one.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlStatsProperties.class)
+public class SqlStatsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatsStatementInspector(TableVersions tableVersions) {
+        StatementInspector inspector = sql -> {
+            RequestSqlStats.onStatement(sql);
+            tableVersions.onStatement(sql);
+            return sql;
+        };
+        return props -> props.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Bean
+    public SmartInitializingSingleton sqlStatsEventListeners(EntityManagerFactory emf) {
+        return () -> {
+            EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_LOAD,
+                    (PostLoadEventListener) event -> RequestSqlStats.onEntityLoad());
+            registry.appendListeners(EventType.INIT_COLLECTION,
+                    (InitializeCollectionEventListener) event -> RequestSqlStats.onCollectionFetch());
+        };
+    }
+}
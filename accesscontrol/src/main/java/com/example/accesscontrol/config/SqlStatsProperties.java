@@ -0,0 +1,28 @@
+package com.example.accesscontrol.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "accesscontrol.sql-stats")
+public class SqlStatsProperties {
+
+    private boolean enabled = true;
+
+    /** Adds X-Sql-Statements, X-Sql-Entity-Loads and X-Sql-Collection-Fetches to responses. */
+    private boolean responseHeaders = false;
+
+    /** Statement budget for endpoints without an entry in {@link #budgets}; 0 disables the check. */
+    private int defaultBudget = 0;
+
+    /** Per-endpoint budgets keyed by "METHOD /ant/path/**". */
+    private Map<String, Integer> budgets = new LinkedHashMap<>();
+
+    /** Warn when one query shape runs more than this many times in a request; 0 disables the check. */
+    private int repeatThreshold = 0;
+}
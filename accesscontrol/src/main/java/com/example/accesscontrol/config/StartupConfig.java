@@ -0,0 +1,38 @@
+package com.example.accesscontrol.config;
+
+import com.example.accesscontrol.security.jwt.JwtTokenProvider;
+import com.example.accesscontrol.security.jwt.SigningKeyStore;
+import com.example.accesscontrol.security.jwt.TokenRevocationService;
+import com.example.accesscontrol.service.BulkJobService;
+import com.example.accesscontrol.service.ChangeLogService;
+import com.example.accesscontrol.service.ChangeStreamService;
+import com.example.accesscontrol.service.GroupHierarchyService;
+import com.example.accesscontrol.service.RoleHierarchyService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The prod profile initializes beans lazily. These do their work when created: they validate
+ * configuration, create lock and head rows, rebuild closures, load signing keys or start the
+ * background workers. Left lazy, that would happen inside the first request that needs them,
+ * or never for the workers, so they are always created at startup.
+ */
+@Configuration
+public class StartupConfig {
+
+    // Static: the filter is looked up by a bean factory post-processor, before this class exists
+    @Bean
+    static LazyInitializationExcludeFilter startupWorkBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                TenantDatabases.class,
+                RoleHierarchyService.class,
+                GroupHierarchyService.class,
+                ChangeLogService.class,
+                ChangeStreamService.class,
+                BulkJobService.class,
+                SigningKeyStore.class,
+                JwtTokenProvider.class,
+                TokenRevocationService.class);
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.accesscontrol.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Capacity-test dataset written with plain JDBC batches from several threads, used instead of
+ * {@link DataInitializer} when the "synthetic" profile is active. Rows get explicit ids and every
+ * chunk of users draws from its own seeded random, so the output only depends on the settings
+ * in {@link SyntheticDataProperties}. On MySQL add rewriteBatchedStatements=true to the JDBC URL.
+ *
+ * <p>User 1 is the admin. Every user is a MEMBER; group membership follows a Zipf distribution
+ * and a few heavy roles each cover a fixed share of all users.
+ */
+@Configuration
+@Profile("synthetic")
+@EnableConfigurationProperties(SyntheticDataProperties.class)
+@RequiredArgsConstructor
+@Slf4j
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final long ADMIN_ROLE_ID = 1;
+    private static final long MEMBER_ROLE_ID = 2;
+
+    private final JdbcTemplate jdbc;
+    private final PasswordEncoder passwordEncoder;
+    private final SyntheticDataProperties props;
+
+    @Override
+    public void run(String... args) throws Exception {
+        validate();
+        Long existing = jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("SyntheticDataGenerator: users table not empty ({} rows). Skipping.", existing);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        log.info("SyntheticDataGenerator: generating users={} groups={} roles={} permissions={} seed={} threads={}",
+                props.getUsers(), props.getGroups(), props.getRoles(), props.getPermissions(),
+                props.getSeed(), props.getThreads());
+
+        insertPermissions();
+        insertRoles();
+        insertGroups();
+        insertRolePermissions();
+        insertGroupRoles();
+        insertUsers(passwordEncoder.encode(props.getPassword()));
+        restartIdentities();
+
+        long ms = System.currentTimeMillis() - start;
+        log.info("SyntheticDataGenerator: generation complete users={} durationMs={} usersPerSecond={}",
+                props.getUsers(), ms, ms == 0 ? props.getUsers() : props.getUsers() * 1000L / ms);
+    }
+
+    private void validate() {
+        if (props.getUsers() < 1 || props.getGroups() < 1 || props.getPermissions() < 1)
+            throw new IllegalArgumentException("Synthetic users, groups and permissions must be positive");
+        if (props.getRoles() < 2 + props.getHeavyRoles())
+            throw new IllegalArgumentException("Synthetic roles must cover ADMIN, MEMBER and the heavy roles");
+        if (props.getThreads() < 1 || props.getBatchSize() < 1)
+            throw new IllegalArgumentException("Synthetic threads and batch size must be positive");
+    }
+
+    private void insertPermissions() {
+        batch("INSERT INTO permissions (id, name, version) VALUES (?, ?, 0)", props.getPermissions(),
+                i -> new Object[]{(long) i + 1, "PERMISSION_" + (i + 1)});
+    }
+
+    private void insertRoles() {
+        batch("INSERT INTO roles (id, name, version) VALUES (?, ?, 0)", props.getRoles(), i -> {
+            long id = i + 1;
+            String name = id == ADMIN_ROLE_ID ? "ADMIN"
+                    : id == MEMBER_ROLE_ID ? "MEMBER"
+                    : isHeavyRole(id) ? "HEAVY_ROLE_" + id : "ROLE_" + id;
+            return new Object[]{id, name};
+        });
+    }
+
+    private void insertGroups() {
+        batch("INSERT INTO `groups` (id, name, version) VALUES (?, ?, 0)", props.getGroups(),
+                i -> new Object[]{(long) i + 1, "Group " + (i + 1)});
+    }
+
+    private void insertRolePermissions() {
+        Random random = new Random(props.getSeed());
+        int perRole = Math.min(props.getPermissionsPerRole(), props.getPermissions());
+        List<Object[]> rows = new ArrayList<>();
+        for (long role = 1; role <= props.getRoles(); role++) {
+            if (role == ADMIN_ROLE_ID) {
+                for (long p = 1; p <= props.getPermissions(); p++) rows.add(new Object[]{role, p});
+            } else {
+                for (long p : distinct(random, props.getPermissions(), perRole)) rows.add(new Object[]{role, p});
+            }
+        }
+        batch("INSERT INTO role_permissions (role_id, permission_id) VALUES (?, ?)", rows.size(), rows::get);
+    }
+
+    private void insertGroupRoles() {
+        Random random = new Random(props.getSeed() + 1);
+        int perGroup = Math.min(props.getRolesPerGroup(), props.getRoles() - 1);
+        List<Object[]> rows = new ArrayList<>();
+        for (long group = 1; group <= props.getGroups(); group++) {
+            // Skip ADMIN: ids are drawn from 1..roles-1 and shifted by one
+            for (long r : distinct(random, props.getRoles() - 1, perGroup)) rows.add(new Object[]{r + 1, group});
+        }
+        batch("INSERT INTO group_roles (role_id, group_id) VALUES (?, ?)", rows.size(), rows::get);
+    }
+
+    private void insertUsers(String passwordHash) throws Exception {
+        double[] groupCdf = zipfCdf(props.getGroups(), props.getGroupSizeExponent());
+        int chunks = (props.getUsers() + props.getBatchSize() - 1) / props.getBatchSize();
+
+        ExecutorService pool = Executors.newFixedThreadPool(props.getThreads());
+        try {
+            List<Future<?>> futures = new ArrayList<>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                futures.add(pool.submit(() -> insertUserChunk(chunk, passwordHash, groupCdf)));
+            }
+            int done = 0;
+            for (Future<?> f : futures) {
+                f.get();
+                if (++done % Math.max(1, chunks / 10) == 0) {
+                    log.info("SyntheticDataGenerator: users {}/{}", Math.min(props.getUsers(), (long) done * props.getBatchSize()), props.getUsers());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void insertUserChunk(int chunk, String passwordHash, double[] groupCdf) {
+        SplittableRandom random = new SplittableRandom(props.getSeed() + chunk * 0x9E3779B97F4A7C15L);
+        long first = (long) chunk * props.getBatchSize() + 1;
+        long last = Math.min(props.getUsers(), first + props.getBatchSize() - 1);
+        long lightRoles = props.getRoles() - 2L - props.getHeavyRoles();
+
+        List<Object[]> users = new ArrayList<>(props.getBatchSize());
+        List<Object[]> userRoles = new ArrayList<>(props.getBatchSize() * 2);
+        List<Object[]> userGroups = new ArrayList<>(props.getBatchSize() * props.getGroupsPerUser());
+        for (long id = first; id <= last; id++) {
+            boolean admin = id == 1;
+            String email = admin ? props.getAdminEmail() : "user" + id + "@synthetic.local";
+            users.add(new Object[]{id, email, passwordHash, admin || id % 50 != 0});
+
+            userRoles.add(new Object[]{id, MEMBER_ROLE_ID});
+            if (admin) userRoles.add(new Object[]{id, ADMIN_ROLE_ID});
+            for (long h = 0; h < props.getHeavyRoles(); h++) {
+                if (random.nextDouble() < props.getHeavyRoleShare()) userRoles.add(new Object[]{id, 3 + h});
+            }
+            if (lightRoles > 0) {
+                Set<Long> picked = new HashSet<>();
+                int count = random.nextInt(props.getLightRolesPerUser() + 1);
+                for (int k = 0; k < count; k++) {
+                    long role = 3 + props.getHeavyRoles() + random.nextLong(lightRoles);
+                    if (picked.add(role)) userRoles.add(new Object[]{id, role});
+                }
+            }
+
+            Set<Long> groups = new HashSet<>();
+            for (int k = 0; k < props.getGroupsPerUser(); k++) {
+                long group = pick(groupCdf, random.nextDouble()) + 1;
+                if (groups.add(group)) userGroups.add(new Object[]{id, group});
+            }
+        }
+
+        jdbc.batchUpdate("INSERT INTO users (id, email, password, enabled, version) VALUES (?, ?, ?, ?, 0)", users);
+        jdbc.batchUpdate("INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)", userRoles);
+        jdbc.batchUpdate("INSERT INTO user_groups (user_id, group_id) VALUES (?, ?)", userGroups);
+    }
+
+    // MySQL moves AUTO_INCREMENT past explicit ids by itself; H2 identity columns do not
+    private void restartIdentities() {
+        String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"H2".equals(product)) return;
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("users", props.getUsers());
+        sizes.put("roles", props.getRoles());
+        sizes.put("permissions", props.getPermissions());
+        sizes.put("`groups`", props.getGroups());
+        sizes.forEach((table, rows) ->
+                jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (rows + 1)));
+    }
+
+    private boolean isHeavyRole(long roleId) {
+        return roleId > MEMBER_ROLE_ID && roleId <= MEMBER_ROLE_ID + props.getHeavyRoles();
+    }
+
+    private void batch(String sql, int rows, IntFunction<Object[]> row) {
+        List<Object[]> batch = new ArrayList<>(Math.min(rows, props.getBatchSize()));
+        for (int i = 0; i < rows; i++) {
+            batch.add(row.apply(i));
+            if (batch.size() == props.getBatchSize()) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) jdbc.batchUpdate(sql, batch);
+    }
+
+    /** {@code count} distinct ids from 1..n. */
+    private static List<Long> distinct(Random random, int n, int count) {
+        List<Long> ids = new ArrayList<>(n);
+        for (long i = 1; i <= n; i++) ids.add(i);
+        Collections.shuffle(ids, random);
+        return ids.subList(0, count);
+    }
+
+    static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) cdf[k] /= sum;
+        return cdf;
+    }
+
+    static int pick(double[] cdf, double u) {
+        int i = Arrays.binarySearch(cdf, u);
+        return Math.min(cdf.length - 1, i >= 0 ? i : -i - 1);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.accesscontrol.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "accesscontrol.synthetic")
+public class SyntheticDataProperties {
+
+    private int users = 1_000_000;
+    private int groups = 10_000;
+
+    /** Includes ADMIN and MEMBER, which get ids 1 and 2. */
+    private int roles = 50;
+    private int permissions = 500;
+
+    /** Same seed, same sizes: same rows, whatever the thread count. */
+    private long seed = 42;
+
+    private int threads = Math.min(8, Runtime.getRuntime().availableProcessors());
+    private int batchSize = 5_000;
+
+    /** Zipf exponent for group popularity; around 1 gives a few huge groups and a long tail. */
+    private double groupSizeExponent = 1.1;
+    private int groupsPerUser = 2;
+
+    /** The first roles after MEMBER each hold this share of all users. */
+    private int heavyRoles = 3;
+    private double heavyRoleShare = 0.3;
+
+    /** Upper bound of extra light roles per user, drawn uniformly from 0. */
+    private int lightRolesPerUser = 2;
+
+    private int permissionsPerRole = 20;
+    private int rolesPerGroup = 3;
+
+    private String adminEmail = "admin@synthetic.local";
+    private String password = "password";
+}
@@ -0,0 +1,162 @@
+package com.example.accesscontrol.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Change count per table, kept in the table_versions table and used to build ETags for GET
+ * endpoints. Every INSERT, UPDATE or DELETE Hibernate sends (including bulk deletes, which skip
+ * entity events) bumps its table in the same transaction, just before it commits, so a poll
+ * with a matching If-None-Match gets 304 after a single primary key read instead of the
+ * endpoint's queries. Every node reads the same rows, so a write on one is seen by all.
+ * Writes that bypass Hibernate declare their tables through {@link #written}.
+ *
+ * <p>The bump holds the table's row lock until commit, so writers of the same table queue
+ * there for the length of their commit. Counts are kept per database, not per tenant, so a
+ * write in one tenant also changes the tags of others on its database; the tenant is part of
+ * the tag so one tenant's tag never matches another's.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TableVersions {
+
+    public static final String USERS = "users";
+    public static final String ROLES = "roles";
+    public static final String GROUPS = "groups";
+    public static final String PERMISSIONS = "permissions";
+    public static final String USER_ROLES = "user_roles";
+    public static final String USER_GROUPS = "user_groups";
+    public static final String ROLE_PERMISSIONS = "role_permissions";
+    public static final String GROUP_ROLES = "group_roles";
+    public static final String ROLE_INHERITANCE = "role_inheritance";
+
+    /** Everything a user row is rendered with: its roles and groups by name. */
+    public static final String[] USER_DETAIL_TABLES = {USERS, USER_ROLES, ROLES, USER_GROUPS, GROUPS};
+
+    private static final Set<String> TRACKED = Set.of(USERS, ROLES, GROUPS, PERMISSIONS, USER_ROLES,
+            USER_GROUPS, ROLE_PERMISSIONS, GROUP_ROLES, ROLE_INHERITANCE);
+
+    private static final Pattern DML = Pattern.compile(
+            "^\\s*(?:insert\\s+into|update|delete\\s+(?:\\w+\\s+)?from)\\s+[`\"]?(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TenantDatabases databases;
+    // Hibernate is configured with this bean, so the factory can only be looked up later
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    @Value("${accesscontrol.etag.enabled:true}")
+    private boolean enabled;
+
+    // The rows exist from here on; until then bumps find nothing to update
+    @EventListener(ApplicationReadyEvent.class)
+    void createRows() {
+        if (!enabled) return;
+        for (String tenant : databases.representatives()) {
+            TenantContext.runAs(tenant, () -> TRACKED.forEach(table -> {
+                try {
+                    jdbc.update("INSERT INTO table_versions (name, version) SELECT :n, 0 FROM DUAL"
+                            + " WHERE NOT EXISTS (SELECT 1 FROM table_versions WHERE name = :n)", Map.of("n", table));
+                } catch (DuplicateKeyException race) {
+                    // Another node created it first
+                }
+            }));
+        }
+    }
+
+    /**
+     * Sets the ETag on the response and returns true when the request's If-None-Match already
+     * matches it, in which case the caller should return null.
+     */
+    public boolean notModified(WebRequest request, String... tables) {
+        return enabled && request.checkNotModified(etag(tables) + "." + TenantContext.current()
+                + representation(request.getHeader(HttpHeaders.ACCEPT)));
+    }
+
+    /** Versions only grow, so their sum changes whenever any of the tables does. */
+    public String etag(String... tables) {
+        Long sum = jdbc.queryForObject("SELECT COALESCE(SUM(version), 0) FROM table_versions WHERE name IN (:names)",
+                Map.of("names", List.of(tables)), Long.class);
+        return "v" + Long.toString(sum == null ? 0 : sum, 36);
+    }
+
+    /** For writes Hibernate does not see; call inside the writing transaction. */
+    public void written(String... tables) {
+        for (String table : tables) track(table);
+    }
+
+    // JSON, CBOR and Smile bodies of the same data are different representations
+    private static String representation(String accept) {
+        if (accept == null) return "";
+        if (accept.contains("cbor")) return "-cbor";
+        if (accept.contains("smile")) return "-smile";
+        return "";
+    }
+
+    void onStatement(String sql) {
+        Matcher m = DML.matcher(sql);
+        if (m.find()) track(m.group(1));
+    }
+
+    private void track(String name) {
+        String table = name.replace("`", "").toLowerCase(Locale.ROOT);
+        if (!enabled || !TRACKED.contains(table)) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // The write has already run, on a connection of its own
+            bump(Set.of(table));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> tables = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(this, tables);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Hibernate only flushes on commit, after this; statements it sends now land in tables
+                    EntityManagerFactory emf = entityManagerFactory.getIfAvailable();
+                    EntityManager em = emf == null ? null : EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+                    if (em != null) em.flush();
+                    if (!tables.isEmpty()) bump(tables);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TableVersions.this);
+                }
+            });
+            pending = tables;
+        }
+        pending.add(table);
+    }
+
+    // Sorted, so two transactions lock the rows in the same order
+    private void bump(Set<String> tables) {
+        jdbc.update("UPDATE table_versions SET version = version + 1 WHERE name IN (:names)",
+                Map.of("names", List.copyOf(tables)));
+    }
+}
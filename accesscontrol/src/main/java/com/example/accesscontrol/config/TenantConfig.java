@@ -0,0 +1,80 @@
+package com.example.accesscontrol.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tenant-owned entities carry a {@code @TenantId} column that Hibernate fills on insert and
+ * adds to every query, taking the value from {@link TenantContext}. The application data
+ * source routes each transaction to the current tenant's database.
+ *
+ * <p>ddl-auto only reaches the shared database; databases of their own are created from the
+ * same schema before tenants are placed on them.
+ */
+@Configuration
+@EnableConfigurationProperties(TenantProperties.class)
+public class TenantConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource sharedDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource sharedDataSource, TenantDatabases databases,
+                                 TenantProperties props, ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(TenantDatabases.SHARED, sharedDataSource);
+        List<HikariDataSource> dedicated = new ArrayList<>();
+        props.getDatabases().forEach((name, db) -> {
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName("tenant-" + name);
+            ds.setJdbcUrl(db.getUrl());
+            ds.setUsername(db.getUsername());
+            ds.setPassword(db.getPassword());
+            ds.setMaximumPoolSize(db.getMaximumPoolSize());
+            meterRegistry.ifAvailable(r -> ds.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(r)));
+            targets.put(name, ds);
+            dedicated.add(ds);
+        });
+        TenantRoutingDataSource routing = new TenantRoutingDataSource(databases, dedicated);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(sharedDataSource);
+        return routing;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer tenantIdentifierResolver() {
+        CurrentTenantIdentifierResolver<String> resolver = new CurrentTenantIdentifierResolver<>() {
+            @Override
+            public String resolveCurrentTenantIdentifier() {
+                return TenantContext.current();
+            }
+
+            @Override
+            public boolean validateExistingCurrentSessions() {
+                return true;
+            }
+        };
+        return properties -> properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, resolver);
+    }
+}
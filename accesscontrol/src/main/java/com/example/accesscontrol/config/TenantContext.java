@@ -0,0 +1,68 @@
+package com.example.accesscontrol.config;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The tenant the current thread works for. Hibernate scopes every tenant-owned entity to it
+ * and the routing data source picks the tenant's database from it, so it has to be bound
+ * before the first transaction of a request or task starts. Unbound threads, such as
+ * schedulers and startup code, work for {@link #DEFAULT}.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT = "default";
+
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant == null ? DEFAULT : tenant;
+    }
+
+    public static boolean isBound() {
+        return CURRENT.get() != null;
+    }
+
+    public static boolean isValid(String tenant) {
+        return tenant != null && VALID.matcher(tenant).matches();
+    }
+
+    public static void bind(String tenant) {
+        if (!isValid(tenant)) throw new IllegalArgumentException("Invalid tenant id");
+        CURRENT.set(tenant);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /** Runs {@code work} for {@code tenant} and restores whatever was bound before. */
+    public static <T> T callAs(String tenant, Supplier<T> work) {
+        String previous = CURRENT.get();
+        bind(tenant);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+
+    public static void runAs(String tenant, Runnable work) {
+        callAs(tenant, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /** Binds the caller's tenant around {@code task} wherever it ends up running. */
+    public static Runnable wrap(Runnable task) {
+        String tenant = current();
+        return () -> runAs(tenant, task);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.accesscontrol.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Which database each tenant lives on. Tenants without a placement share spring.datasource,
+ * which also holds the tables that belong to no tenant (signing keys, revoked tokens, rate
+ * limit buckets); {@link TenantContext#DEFAULT} always lives there.
+ */
+@Component
+@RequiredArgsConstructor
+public class TenantDatabases {
+
+    public static final String SHARED = "shared";
+
+    private final TenantProperties props;
+
+    @PostConstruct
+    void validate() {
+        props.getTenants().forEach(tenant -> {
+            if (!TenantContext.isValid(tenant)) {
+                throw new IllegalStateException("accesscontrol.tenancy.tenants has an invalid tenant id '" + tenant + "'");
+            }
+        });
+        if (props.getDatabases().containsKey(SHARED)) {
+            throw new IllegalStateException("accesscontrol.tenancy.databases must not define '" + SHARED + "'");
+        }
+        props.getPlacements().forEach((tenant, database) -> {
+            if (!TenantContext.isValid(tenant) || TenantContext.DEFAULT.equals(tenant)) {
+                throw new IllegalStateException("Tenant '" + tenant + "' cannot be placed on a database of its own");
+            }
+            if (!props.getDatabases().containsKey(database)) {
+                throw new IllegalStateException("Tenant '" + tenant + "' is placed on unknown database '" + database + "'");
+            }
+        });
+    }
+
+    /** Whether requests may work for {@code tenant}: default, listed or placed. */
+    public boolean isKnown(String tenant) {
+        return TenantContext.DEFAULT.equals(tenant)
+                || props.getTenants().contains(tenant)
+                || props.getPlacements().containsKey(tenant);
+    }
+
+    public String databaseOf(String tenant) {
+        return props.getPlacements().getOrDefault(tenant, SHARED);
+    }
+
+    /** One tenant per database in use, for work that has to run against each of them. */
+    public List<String> representatives() {
+        Map<String, String> byDatabase = new LinkedHashMap<>();
+        byDatabase.put(SHARED, TenantContext.DEFAULT);
+        props.getPlacements().forEach((tenant, database) -> byDatabase.putIfAbsent(database, tenant));
+        return new ArrayList<>(byDatabase.values());
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.accesscontrol.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+
+/**
+ * Binds the tenant named in the tenant header for the rest of the request, ahead of
+ * security so the user behind a token is looked up in the right tenant. Requests with a
+ * token are bound to the token's tenant by the JWT filter instead. Only configured tenants
+ * are accepted, so an unauthenticated request cannot register users in a tenant of its own.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+@RequiredArgsConstructor
+public class TenantFilter extends OncePerRequestFilter {
+
+    private final TenantProperties props;
+    private final TenantDatabases databases;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String tenant = request.getHeader(props.getHeader());
+        if (tenant != null) {
+            tenant = tenant.strip();
+            if (!TenantContext.isValid(tenant)) {
+                reject(response, "Invalid tenant id");
+                return;
+            }
+            if (!databases.isKnown(tenant)) {
+                reject(response, "Unknown tenant");
+                return;
+            }
+            TenantContext.bind(tenant);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private static void reject(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"timestamp\":\"" + OffsetDateTime.now()
+                + "\",\"status\":400,\"error\":\"Bad Request\",\"message\":\"" + message + "\"}");
+    }
+}
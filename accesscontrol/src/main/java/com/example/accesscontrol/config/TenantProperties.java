@@ -0,0 +1,44 @@
+package com.example.accesscontrol.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "accesscontrol.tenancy")
+public class TenantProperties {
+
+    /** Selects the tenant on requests without a token; a token's tenant must match it when both are sent. */
+    private String header = "X-Tenant-ID";
+
+    /**
+     * Tenants on the shared database that requests may name. Together with default and the
+     * placed tenants these are the only ones accepted; any other tenant header is rejected.
+     */
+    private List<String> tenants = new ArrayList<>();
+
+    /** Databases of their own, by name. Tenants not placed on one share spring.datasource. */
+    private Map<String, Database> databases = new LinkedHashMap<>();
+
+    /** Tenant id to database name. */
+    private Map<String, String> placements = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Database {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.accesscontrol.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.List;
+
+/**
+ * Hands out connections from the current tenant's database. The connection is taken when a
+ * transaction begins, so a tenant bound later in the same transaction does not move it.
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final TenantDatabases databases;
+    private final List<HikariDataSource> dedicated;
+
+    public TenantRoutingDataSource(TenantDatabases databases, List<HikariDataSource> dedicated) {
+        this.databases = databases;
+        this.dedicated = dedicated;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return databases.databaseOf(TenantContext.current());
+    }
+
+    /** The shared pool is a bean of its own and closed with the context. */
+    @Override
+    public void close() {
+        dedicated.forEach(HikariDataSource::close);
+    }
+}
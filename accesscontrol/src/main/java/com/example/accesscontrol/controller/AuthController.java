@@ -3,7 +3,9 @@ package com.example.accesscontrol.controller;
 import com.example.accesscontrol.dto.auth.AuthRequest;
 import com.example.accesscontrol.dto.auth.LoginAuthResponse;
 import com.example.accesscontrol.dto.auth.RegisterAuthResponse;
+import com.example.accesscontrol.security.ratelimit.LoginRateLimiter;
 import com.example.accesscontrol.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -16,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/register")
     public ResponseEntity<RegisterAuthResponse> register(@Valid @RequestBody AuthRequest request) {
@@ -23,7 +26,18 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<LoginAuthResponse> login(@Valid @RequestBody AuthRequest request) {
+    public ResponseEntity<LoginAuthResponse> login(@Valid @RequestBody AuthRequest request,
+                                                   HttpServletRequest httpRequest) {
+        // Outside the login transaction, and before any bcrypt work. The remote address is the
+        // client's once a trusted proxy forwarded it, see server.forward-headers-strategy
+        loginRateLimiter.checkLogin(httpRequest.getRemoteAddr(), request.getEmail());
         return ResponseEntity.ok(authService.login(request));
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        String token = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authService.logout(token);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.accesscontrol.controller;
+
+import com.example.accesscontrol.dto.authorization.EffectivePermissionsResponse;
+import com.example.accesscontrol.service.AuthorizationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotBlank;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/authorization")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Authorization", description = "Effective roles and permissions for client-side decision caches")
+public class AuthorizationController {
+
+    private final AuthorizationService authorizationService;
+
+    @Operation(summary = "Direct and group-granted roles of a user, with the permissions they carry")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/effective")
+    public EffectivePermissionsResponse effective(@RequestParam @NotBlank String email) {
+        return authorizationService.getEffectivePermissions(email);
+    }
+}
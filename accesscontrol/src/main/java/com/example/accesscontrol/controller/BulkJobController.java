@@ -0,0 +1,69 @@
+package com.example.accesscontrol.controller;
+
+import com.example.accesscontrol.dto.job.BulkJobResponse;
+import com.example.accesscontrol.dto.user.assignRolesToUser.AssignRolesRequest;
+import com.example.accesscontrol.dto.user.deassignUsersFromGroups.DeassignUsersFromGroupsRequest;
+import com.example.accesscontrol.dto.user.deleteUsers.DeleteUsersRequest;
+import com.example.accesscontrol.service.BulkJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Bulk jobs", description = "Background bulk operations, processed in chunks")
+public class BulkJobController {
+
+    private final BulkJobService bulkJobService;
+
+    @Operation(summary = "Assign roles to users in the background")
+    @PostMapping("/users/assign-roles")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkJobResponse> assignRolesToUsers(@Valid @RequestBody AssignRolesRequest request) {
+        return accepted(bulkJobService.submitAssignRolesToUsers(request));
+    }
+
+    @Operation(summary = "Deassign users from groups in the background")
+    @PostMapping("/users/deassign-groups")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkJobResponse> deassignUsersFromGroups(@Valid @RequestBody DeassignUsersFromGroupsRequest request) {
+        return accepted(bulkJobService.submitDeassignUsersFromGroups(request));
+    }
+
+    @Operation(summary = "Delete users in the background")
+    @PostMapping("/users/delete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkJobResponse> deleteUsers(@Valid @RequestBody DeleteUsersRequest request) {
+        return accepted(bulkJobService.submitDeleteUsers(request));
+    }
+
+    @Operation(summary = "Delete roles in the background")
+    @PostMapping("/roles/delete")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkJobResponse> deleteRoles(@RequestBody Map<String, List<Long>> request) {
+        return accepted(bulkJobService.submitDeleteRoles(request == null ? null : request.get("roleIds")));
+    }
+
+    @Operation(summary = "Job progress, counts and failed chunks")
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkJobResponse getJob(@PathVariable @Min(1) Long jobId) {
+        return bulkJobService.getJob(jobId);
+    }
+
+    private static ResponseEntity<BulkJobResponse> accepted(BulkJobResponse job) {
+        return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getJobId())).body(job);
+    }
+}
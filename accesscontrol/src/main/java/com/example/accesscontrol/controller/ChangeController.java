@@ -0,0 +1,42 @@
+package com.example.accesscontrol.controller;
+
+import com.example.accesscontrol.dto.change.ChangesResponse;
+import com.example.accesscontrol.service.ChangeLogService;
+import com.example.accesscontrol.service.ChangeStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Changes", description = "Ordered feed of changes to users, roles, groups and permissions")
+public class ChangeController {
+
+    private final ChangeLogService changeLogService;
+    private final ChangeStreamService changeStreamService;
+
+    @Operation(summary = "Changes after a sequence number; without since, only the position to start from")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public ChangesResponse changes(@RequestParam(required = false) Long since,
+                                   @RequestParam(defaultValue = "500") @Min(1) @Max(5000) int limit) {
+        return changeLogService.changesSince(since, limit);
+    }
+
+    @Operation(summary = "The same changes as server-sent events; a subscriber that falls behind is sent an overflow event and disconnected")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long since,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeStreamService.subscribe(lastEventId != null ? lastEventId : since);
+    }
+}
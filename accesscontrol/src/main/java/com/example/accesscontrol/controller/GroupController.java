@@ -1,9 +1,11 @@
 package com.example.accesscontrol.controller;
 
+import com.example.accesscontrol.config.TableVersions;
 import com.example.accesscontrol.config.logs;
 import com.example.accesscontrol.dto.common.PageResponse;
 import com.example.accesscontrol.dto.common.MessageResponse;
 import com.example.accesscontrol.dto.group.*;
+import com.example.accesscontrol.dto.user.getUsers.UserSummaryResponse;
 import com.example.accesscontrol.service.GroupService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
@@ -15,9 +17,12 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
+import static com.example.accesscontrol.config.TableVersions.*;
+
 @Validated
 @Slf4j
 @RestController
@@ -27,6 +32,7 @@ public class GroupController {
 
     private final GroupService groupService;
     private final logs logs;
+    private final TableVersions tableVersions;
 
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
@@ -43,12 +49,14 @@ public class GroupController {
     public ResponseEntity<PageResponse<GroupResponse>> getGroups(
             @RequestParam(defaultValue = "") String q,
             @RequestParam(defaultValue = "0") @Min(0) int page,
-            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size) {
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            WebRequest webRequest) {
 
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = auth == null ? "unknown" : auth.getName();
         log.info("groups.list request actor={} page={} size={} q_len={}",
                 logs.mask(actor), page, size, q == null ? 0 : q.length());
+        if (tableVersions.notModified(webRequest, GROUPS)) return null;
 
         var resp = groupService.getGroups(q, page, size);
         return ResponseEntity.ok(resp);
@@ -56,10 +64,12 @@ public class GroupController {
 
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/{groupId}")
-    public ResponseEntity<GroupDetailsResponse> getGroupDetails(@PathVariable @Min(1) Long groupId) {
+    public ResponseEntity<GroupDetailsResponse> getGroupDetails(@PathVariable @Min(1) Long groupId,
+                                                                WebRequest webRequest) {
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = auth == null ? "unknown" : auth.getName();
         log.info("groups.details request actor={} groupId={}", logs.mask(actor), groupId);
+        if (tableVersions.notModified(webRequest, GROUPS, USER_GROUPS, USERS, GROUP_ROLES, ROLES)) return null;
         var resp = groupService.getGroupDetails(groupId);
         return ResponseEntity.ok(resp);
     }
@@ -79,6 +89,39 @@ public class GroupController {
         return ResponseEntity.ok(resp);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/{groupId}/parent")
+    public ResponseEntity<MessageResponse> updateGroupParent(
+            @PathVariable @Min(1) Long groupId,
+            @RequestBody UpdateGroupParentRequest body) {
+
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        String actor = auth == null ? "unknown" : auth.getName();
+        log.info("groups.update_parent request actor={} groupId={} parentId={}",
+                logs.mask(actor), groupId, body == null ? null : body.getParentId());
+
+        var resp = groupService.updateGroupParent(groupId, body);
+        return ResponseEntity.ok(resp);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{groupId}/members")
+    public ResponseEntity<PageResponse<UserSummaryResponse>> getGroupMembers(
+            @PathVariable @Min(1) Long groupId,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            WebRequest webRequest) {
+
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        String actor = auth == null ? "unknown" : auth.getName();
+        log.info("groups.members request actor={} groupId={} page={} size={}", logs.mask(actor), groupId, page, size);
+        // Moves change groups.parent_id, so GROUPS also covers the closure
+        if (tableVersions.notModified(webRequest, GROUPS, USER_GROUPS, USERS)) return null;
+
+        var resp = groupService.getGroupMembers(groupId, page, size);
+        return ResponseEntity.ok(resp);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping
     public ResponseEntity<MessageResponse> deleteGroups(@RequestBody List<Long> groupIds) {
@@ -0,0 +1,31 @@
+package com.example.accesscontrol.controller;
+
+import com.example.accesscontrol.security.jwt.JwtKeyProperties;
+import com.example.accesscontrol.security.jwt.JwtTokenProvider;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Keys", description = "Public keys for verifying tokens without calling this service")
+public class JwksController {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final JwtKeyProperties keyProperties;
+
+    @Operation(summary = "JWK set of the RS256 signing keys, including the next one before it signs")
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(keyProperties.getJwksMaxAge()).cachePublic())
+                .body(jwtTokenProvider.jwks());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.accesscontrol.controller;
 
+import com.example.accesscontrol.config.TableVersions;
 import com.example.accesscontrol.config.logs;
 import com.example.accesscontrol.dto.common.PageResponse;
 import com.example.accesscontrol.dto.common.MessageResponse;
@@ -15,9 +16,12 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
+import static com.example.accesscontrol.config.TableVersions.PERMISSIONS;
+
 @Validated
 @Slf4j
 @RestController
@@ -27,6 +31,7 @@ public class PermissionController {
 
     private final PermissionService permissionService;
     private final logs logs;
+    private final TableVersions tableVersions;
 
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
@@ -44,21 +49,24 @@ public class PermissionController {
     public PageResponse<PermissionResponse> getPermissions(
             @RequestParam(defaultValue = "") String search,
             @RequestParam(defaultValue = "0") @Min(0) int page,
-            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size) {
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            WebRequest webRequest) {
 
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = auth == null ? "unknown" : auth.getName();
         log.info("permissions.list request actor={} page={} size={} q_len={}",
                 logs.mask(actor), page, size, search == null ? 0 : search.length());
+        if (tableVersions.notModified(webRequest, PERMISSIONS)) return null;
         return permissionService.getPermissions(search, page, size);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/{permissionId}")
-    public PermissionResponse getPermissionsDetails(@PathVariable @Min(1) Long permissionId) {
+    public PermissionResponse getPermissionsDetails(@PathVariable @Min(1) Long permissionId, WebRequest webRequest) {
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = auth == null ? "unknown" : auth.getName();
         log.info("permissions.details request actor={} permissionId={}", logs.mask(actor), permissionId);
+        if (tableVersions.notModified(webRequest, PERMISSIONS)) return null;
         return permissionService.getPermissionDetails(permissionId);
     }
 
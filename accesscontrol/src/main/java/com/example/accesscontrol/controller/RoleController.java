@@ -1,5 +1,6 @@
 package com.example.accesscontrol.controller;
 
+import com.example.accesscontrol.config.TableVersions;
 import com.example.accesscontrol.config.logs;
 import com.example.accesscontrol.dto.group.AssignRolesToGroupsRequest;
 import com.example.accesscontrol.dto.role.*;
@@ -14,10 +15,13 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
 
+import static com.example.accesscontrol.config.TableVersions.*;
+
 @Validated
 @Slf4j
 @RestController
@@ -27,6 +31,7 @@ public class RoleController {
 
     private final RoleService roleService;
     private final logs logs;
+    private final TableVersions tableVersions;
 
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
@@ -44,21 +49,24 @@ public class RoleController {
     public GetRolesResponse getRoles(
             @RequestParam(defaultValue = "") String search,
             @RequestParam(defaultValue = "0") @Min(0) int page,
-            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size) {
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            WebRequest webRequest) {
 
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = auth == null ? "unknown" : auth.getName();
         log.info("roles.list request actor={} page={} size={} q_len={}",
                 logs.mask(actor), page, size, search == null ? 0 : search.length());
+        if (tableVersions.notModified(webRequest, ROLES)) return null;
         return roleService.getRoles(search, page, size);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/{roleId}")
-    public RoleDetailsResponse getRoleById(@PathVariable @Min(1) Long roleId) {
+    public RoleDetailsResponse getRoleById(@PathVariable @Min(1) Long roleId, WebRequest webRequest) {
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = auth == null ? "unknown" : auth.getName();
         log.info("roles.details request actor={} roleId={}", logs.mask(actor), roleId);
+        if (tableVersions.notModified(webRequest, ROLES, ROLE_PERMISSIONS, PERMISSIONS, ROLE_INHERITANCE)) return null;
         return roleService.getRoleWithPermissions(roleId);
     }
 
@@ -101,6 +109,32 @@ public class RoleController {
         return Map.of("message", msg);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/assign-inherited-roles")
+    public Map<String, String> assignInheritedRoles(@Valid @RequestBody List<@Valid AssignInheritedRolesRequest> items) {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        String actor = auth == null ? "unknown" : auth.getName();
+        int pairCount = items == null ? 0
+                : items.stream().mapToInt(i -> i.getInheritedRoleIds() == null ? 0 : i.getInheritedRoleIds().size()).sum();
+        log.info("roles.inheritance.assign request actor={} role_count={} pair_count={}",
+                logs.mask(actor), items == null ? 0 : items.size(), pairCount);
+        String msg = roleService.assignInheritedRoles(items);
+        return Map.of("message", msg);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/deassign-inherited-roles")
+    public Map<String, String> deassignInheritedRoles(@Valid @RequestBody List<@Valid AssignInheritedRolesRequest> items) {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        String actor = auth == null ? "unknown" : auth.getName();
+        int pairCount = items == null ? 0
+                : items.stream().mapToInt(i -> i.getInheritedRoleIds() == null ? 0 : i.getInheritedRoleIds().size()).sum();
+        log.info("roles.inheritance.deassign request actor={} role_count={} pair_count={}",
+                logs.mask(actor), items == null ? 0 : items.size(), pairCount);
+        String msg = roleService.deassignInheritedRoles(items);
+        return Map.of("message", msg);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/groups/assign-roles")
     public Map<String, String> assignRolesToGroups(@Valid @RequestBody List<@Valid AssignRolesToGroupsRequest> items) {
@@ -1,5 +1,6 @@
 package com.example.accesscontrol.controller;
 
+import com.example.accesscontrol.config.TableVersions;
 import com.example.accesscontrol.dto.user.assignRolesToUser.AssignRolesRequest;
 import com.example.accesscontrol.dto.user.assignRolesToUser.AssignRolesResponse;
 import com.example.accesscontrol.dto.user.assignUsersToGroup.AssignUsersToGroupsRequest;
@@ -29,6 +30,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import static com.example.accesscontrol.config.TableVersions.*;
 
 @RestController
 @RequestMapping("/api/users")
@@ -38,6 +42,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final TableVersions tableVersions;
 
     @Operation(summary = "Create users (bulk) and auto-assign MEMBER role")
     @PostMapping
@@ -47,23 +52,25 @@ public class UserController {
         return userService.createUsers(request);
     }
 
+    // No @ResponseStatus on the conditional GETs: it would overwrite the 304
     @Operation(summary = "Get users with search and pagination")
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("hasAnyRole('ADMIN','AUTHOR')")
     public GetUsersResponse getUsers(
             @RequestParam(value = "search", required = false) String search,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "10") int size
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            WebRequest webRequest
     ) {
+        if (tableVersions.notModified(webRequest, USER_DETAIL_TABLES)) return null;
         return userService.getUsers(search, page, size);
     }
 
     @Operation(summary = "Get user details with roles and groups")
     @GetMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("hasAnyRole('ADMIN','AUTHOR')")
-    public UserResponse getUserDetails(@PathVariable("id") Long id) {
+    public UserResponse getUserDetails(@PathVariable("id") Long id, WebRequest webRequest) {
+        if (tableVersions.notModified(webRequest, USER_DETAIL_TABLES)) return null;
         return userService.getUserDetails(id);
     }
 
@@ -0,0 +1,23 @@
+package com.example.accesscontrol.dto.authorization;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EffectivePermissionsResponse {
+    private Long userId;
+    private String email;
+    private boolean enabled;
+    /** Direct roles plus roles granted to the user's groups. */
+    private List<String> roles;
+    private List<Long> roleIds;
+    private List<Long> groupIds;
+    private List<String> permissions;
+}
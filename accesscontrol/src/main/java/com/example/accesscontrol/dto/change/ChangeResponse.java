@@ -0,0 +1,26 @@
+package com.example.accesscontrol.dto.change;
+
+import com.example.accesscontrol.entity.ChangeLogEntry;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeResponse {
+    private long seq;
+    private ChangeLogEntry.EntityType type;
+    private Long id;
+    private String action;
+    private Instant at;
+
+    /** Routes stream entries to the tenant's subscribers; feeds are already per tenant. */
+    @JsonIgnore
+    private String tenant;
+}
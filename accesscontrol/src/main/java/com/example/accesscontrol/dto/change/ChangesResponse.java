@@ -0,0 +1,20 @@
+package com.example.accesscontrol.dto.change;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangesResponse {
+    private List<ChangeResponse> changes;
+    /** Pass as since on the next poll. */
+    private long next;
+    /** The requested position was already purged; drop everything derived from earlier state. */
+    private boolean reset;
+}
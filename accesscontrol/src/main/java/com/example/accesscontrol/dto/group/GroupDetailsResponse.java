@@ -13,6 +13,7 @@ import java.util.List;
 public class GroupDetailsResponse {
     private Long id;
     private String name;
+    private Long parentId;
     private List<UserSummaryResponse> users;
     private List<RoleResponse> roles;
 }
@@ -0,0 +1,12 @@
+package com.example.accesscontrol.dto.group;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UpdateGroupParentRequest {
+    /** Null makes the group top-level. */
+    private Long parentId;
+}
@@ -0,0 +1,18 @@
+package com.example.accesscontrol.dto.job;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkJobFailureResponse {
+    private int chunkIndex;
+    private Long firstItemId;
+    private Long lastItemId;
+    private int items;
+    private String message;
+}
@@ -0,0 +1,31 @@
+package com.example.accesscontrol.dto.job;
+
+import com.example.accesscontrol.entity.BulkJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkJobResponse {
+    private Long jobId;
+    private BulkJob.Type type;
+    private BulkJob.Status status;
+    private int totalItems;
+    private int processedItems;
+    private int failedItems;
+    private int affectedRows;
+    private int totalChunks;
+    private int completedChunks;
+    private int failedChunks;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private List<BulkJobFailureResponse> failures;
+}
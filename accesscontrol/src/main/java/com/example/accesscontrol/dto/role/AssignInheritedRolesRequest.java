@@ -0,0 +1,12 @@
+package com.example.accesscontrol.dto.role;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AssignInheritedRolesRequest {
+    private Long roleId;
+    /** Roles that come with roleId, e.g. MEMBER for ADMIN. */
+    private List<Long> inheritedRoleIds;
+}
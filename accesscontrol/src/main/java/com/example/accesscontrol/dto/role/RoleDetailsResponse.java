@@ -12,4 +12,6 @@ public class RoleDetailsResponse {
     private Long id;
     private String name;
     private List<PermissionResponse> permissions;
+    /** Roles granted along with this one, directly. */
+    private List<RoleResponse> inherits;
 }
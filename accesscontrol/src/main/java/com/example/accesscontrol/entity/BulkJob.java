@@ -0,0 +1,69 @@
+package com.example.accesscontrol.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+
+import java.time.Instant;
+
+@Entity
+@Table(
+        name = "bulk_jobs",
+        indexes = @Index(name = "idx_bulk_jobs_status", columnList = "status")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkJob {
+
+    public enum Type { ASSIGN_ROLES_TO_USERS, DEASSIGN_USERS_FROM_GROUPS, DELETE_USERS, DELETE_ROLES }
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, COMPLETED_WITH_ERRORS, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Jobs are only visible to the tenant that submitted them. */
+    @TenantId
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, length = 64, updatable = false)
+    private String tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Status status;
+
+    @Column(length = 150)
+    private String createdBy;
+
+    /** Instance running the job; it renews heartbeatAt until the job finishes. */
+    @Column(length = 100)
+    private String owner;
+
+    // Epoch millis, compared in plain SQL by every instance's orphan sweep
+    private Long heartbeatAt;
+
+    // Counters are only changed through BulkJobRepository's increment queries, never by dirty checking
+    private int totalItems;
+    private int processedItems;
+    private int failedItems;
+    private int affectedRows;
+    private int totalChunks;
+    private int completedChunks;
+    private int failedChunks;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+}
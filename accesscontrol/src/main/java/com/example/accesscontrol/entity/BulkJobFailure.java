@@ -0,0 +1,35 @@
+package com.example.accesscontrol.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(
+        name = "bulk_job_failures",
+        indexes = @Index(name = "idx_bulk_job_failures_job", columnList = "job_id, chunk_index")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkJobFailure {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "chunk_index", nullable = false)
+    private int chunkIndex;
+
+    private Long firstItemId;
+
+    private Long lastItemId;
+
+    private int items;
+
+    @Column(length = 500)
+    private String message;
+}
@@ -0,0 +1,47 @@
+package com.example.accesscontrol.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+@Entity
+@Table(
+        name = "change_log",
+        indexes = @Index(name = "idx_change_log_created_at", columnList = "createdAt")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeLogEntry {
+
+    public enum EntityType { USER, ROLE, GROUP, PERMISSION }
+
+    /** Sequence number consumers resume from, taken from {@link ChangeLogHead} at commit. */
+    @Id
+    private Long id;
+
+    /**
+     * Tenant of the changed entity. Not a Hibernate tenant id: the sequence spans every tenant
+     * on the database, and a reader's position moves along all of it.
+     */
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, length = 64)
+    private String tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    /** What changed on the entity, e.g. roles, groups, permissions, status, deleted. */
+    @Column(nullable = false, length = 32)
+    private String action;
+
+    /** Epoch millis on the writing node. */
+    @Column(nullable = false)
+    private long createdAt;
+}
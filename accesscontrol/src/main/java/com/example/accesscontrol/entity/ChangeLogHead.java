@@ -0,0 +1,25 @@
+package com.example.accesscontrol.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * The last change_log sequence number handed out on this database. A single row, locked from
+ * the moment a transaction takes numbers until it commits, so entries commit in sequence order.
+ */
+@Entity
+@Table(name = "change_log_head")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeLogHead {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long seq;
+}
@@ -0,0 +1,41 @@
+package com.example.accesscontrol.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Transitive closure of the group tree: one row for every group below an ancestor, however
+ * deep. A group's own row is not stored, as in {@link RoleClosure}.
+ */
+@Entity
+@Table(
+        name = "group_closure",
+        indexes = @Index(name = "idx_group_closure_descendant", columnList = "descendantId")
+)
+@IdClass(GroupClosure.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupClosure {
+    @Id
+    private Long ancestorId;
+
+    @Id
+    private Long descendantId;
+
+    /** 1 for a direct child. */
+    @Column(nullable = false)
+    private int depth;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
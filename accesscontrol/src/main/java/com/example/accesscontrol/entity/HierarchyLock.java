@@ -0,0 +1,26 @@
+package com.example.accesscontrol.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One row per hierarchy, locked by every change to it, so closure updates computed from the
+ * current closure never interleave. {@code revision} counts the changes.
+ */
+@Entity
+@Table(name = "hierarchy_locks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HierarchyLock {
+    public static final int ROLES = 1;
+    public static final int GROUPS = 2;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long revision;
+}
@@ -3,6 +3,9 @@ package com.example.accesscontrol.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.TenantId;
 
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -10,9 +13,13 @@ import java.util.Set;
 @Entity
 @Table(
         name = "permissions",
-        uniqueConstraints = @UniqueConstraint(name = "uk_permissions_name", columnNames = "name"),
-        indexes = @Index(name = "idx_permissions_name", columnList = "name")
+        uniqueConstraints = @UniqueConstraint(name = "uk_permissions_tenant_name", columnNames = {"tenant_id", "name"}),
+        indexes = {
+                @Index(name = "idx_permissions_tenant_id", columnList = "tenant_id, id"),
+                @Index(name = "idx_permissions_deleted", columnList = "deleted, id")
+        }
 )
+@SQLRestriction("deleted = false")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,12 +30,22 @@ public class Permission {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, length = 100, unique = true)
+    @TenantId
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, length = 64, updatable = false)
+    private String tenantId;
+
+    @Column(nullable = false, length = 100)
     private String name;
 
     @Version
     private Long version;
 
+    @Builder.Default
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean deleted = false;
+
     @Builder.Default
     @ManyToMany(mappedBy = "permissions")
     @BatchSize(size = 50)
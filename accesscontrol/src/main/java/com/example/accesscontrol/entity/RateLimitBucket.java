@@ -0,0 +1,32 @@
+package com.example.accesscontrol.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(
+        name = "rate_limit_buckets",
+        indexes = @Index(name = "idx_rate_limit_buckets_full_at", columnList = "fullAt")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateLimitBucket {
+    /** SHA-256 of the limiter key, so no email or IP is stored. */
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(nullable = false)
+    private double tokens;
+
+    /** Epoch millis of the last consume. */
+    @Column(nullable = false)
+    private long updatedAt;
+
+    /** Epoch millis at which the bucket is full again; rows past it can be deleted. */
+    @Column(nullable = false)
+    private long fullAt;
+}
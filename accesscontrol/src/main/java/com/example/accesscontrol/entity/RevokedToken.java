@@ -0,0 +1,32 @@
+package com.example.accesscontrol.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(
+        name = "revoked_tokens",
+        indexes = {
+                @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt"),
+                @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revokedAt")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+    /** The token's jti claim. */
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    /** Epoch millis of the token's own expiry; the row can go once it has passed. */
+    @Column(nullable = false)
+    private long expiresAt;
+
+    /** Epoch millis on the revoking node; other nodes poll by it. */
+    @Column(nullable = false)
+    private long revokedAt;
+}
@@ -3,6 +3,10 @@ package com.example.accesscontrol.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.TenantId;
 
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -10,9 +14,13 @@ import java.util.Set;
 @Entity
 @Table(
         name = "roles",
-        uniqueConstraints = @UniqueConstraint(name = "uk_roles_name", columnNames = "name"),
-        indexes = @Index(name = "idx_roles_name", columnList = "name")
+        uniqueConstraints = @UniqueConstraint(name = "uk_roles_tenant_name", columnNames = {"tenant_id", "name"}),
+        indexes = {
+                @Index(name = "idx_roles_tenant_id", columnList = "tenant_id, id"),
+                @Index(name = "idx_roles_deleted", columnList = "deleted, id")
+        }
 )
+@SQLRestriction("deleted = false")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,12 +31,22 @@ public class Role {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, length = 100, unique = true)
+    @TenantId
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, length = 64, updatable = false)
+    private String tenantId;
+
+    @Column(nullable = false, length = 100)
     private String name;
 
     @Version
     private Long version;
 
+    @Builder.Default
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean deleted = false;
+
     @Builder.Default
     @ManyToMany(mappedBy = "roles")
     @BatchSize(size = 50)
@@ -41,6 +59,7 @@ public class Role {
             inverseJoinColumns = @JoinColumn(name = "permission_id", nullable = false),
             uniqueConstraints = @UniqueConstraint(name = "uk_role_permissions_role_permission", columnNames = {"role_id", "permission_id"}))
     @BatchSize(size = 50)
+    @OptimisticLock(excluded = true)
     private Set<Permission> permissions = new LinkedHashSet<>();
 
     @Builder.Default
@@ -50,5 +69,17 @@ public class Role {
             inverseJoinColumns = @JoinColumn(name = "group_id", nullable = false),
             uniqueConstraints = @UniqueConstraint(name = "uk_group_roles_group_role", columnNames = {"group_id", "role_id"}))
     @BatchSize(size = 50)
+    @OptimisticLock(excluded = true)
     private Set<Group> groups = new LinkedHashSet<>();
+
+    /** Roles granted along with this one; edit through RoleService so the closure follows. */
+    @Builder.Default
+    @ManyToMany
+    @JoinTable(name = "role_inheritance",
+            joinColumns = @JoinColumn(name = "role_id", nullable = false),
+            inverseJoinColumns = @JoinColumn(name = "inherited_role_id", nullable = false),
+            uniqueConstraints = @UniqueConstraint(name = "uk_role_inheritance_role_inherited", columnNames = {"role_id", "inherited_role_id"}))
+    @BatchSize(size = 50)
+    @OptimisticLock(excluded = true)
+    private Set<Role> inherits = new LinkedHashSet<>();
 }
@@ -0,0 +1,44 @@
+package com.example.accesscontrol.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Transitive closure of role inheritance: one row for every role an ancestor inherits,
+ * however indirectly. A role's own row is not stored. {@code paths} counts the distinct
+ * inheritance paths between the two, which is what lets an edge be removed without
+ * recomputing the rest of the hierarchy.
+ */
+@Entity
+@Table(
+        name = "role_closure",
+        indexes = @Index(name = "idx_role_closure_descendant", columnList = "descendantId")
+)
+@IdClass(RoleClosure.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoleClosure {
+    /** The inheriting role. */
+    @Id
+    private Long ancestorId;
+
+    /** A role it inherits. */
+    @Id
+    private Long descendantId;
+
+    @Column(nullable = false)
+    private long paths;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.accesscontrol.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "signing_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SigningKey {
+    /** The kid header of tokens signed with this key. */
+    @Id
+    @Column(length = 32)
+    private String id;
+
+    /** X.509 encoding, published through the JWKS endpoint. */
+    @Column(nullable = false, length = 1024)
+    private byte[] publicKey;
+
+    /** PKCS#8 encoding, AES-GCM encrypted with a key derived from jwt.secret. */
+    @Column(nullable = false, length = 4096)
+    private byte[] privateKey;
+
+    /** Epoch millis from which the key signs; it stops once a newer key becomes active. */
+    @Column(nullable = false)
+    private long activeFrom;
+}
@@ -0,0 +1,24 @@
+package com.example.accesscontrol.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Change count of one table in this database, bumped by every transaction that writes to it.
+ * ETags are built from these, so every node answers with the same tag for the same data.
+ */
+@Entity
+@Table(name = "table_versions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TableVersion {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private long version;
+}
@@ -3,6 +3,10 @@ package com.example.accesscontrol.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.TenantId;
 
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -10,11 +14,13 @@ import java.util.Set;
 @Entity
 @Table(
         name = "users",
+        uniqueConstraints = @UniqueConstraint(name = "uk_users_tenant_email", columnNames = {"tenant_id", "email"}),
         indexes = {
-                @Index(name = "idx_users_email", columnList = "email"),
-                @Index(name = "idx_users_enabled", columnList = "enabled")
+                @Index(name = "idx_users_tenant_enabled", columnList = "tenant_id, enabled"),
+                @Index(name = "idx_users_deleted", columnList = "deleted, id")
         }
 )
+@SQLRestriction("deleted = false")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,7 +31,13 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, length = 150, unique = true)
+    /** Owning tenant; Hibernate sets it on insert and adds it to every query, see TenantConfig. */
+    @TenantId
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, length = 64, updatable = false)
+    private String tenantId;
+
+    @Column(nullable = false, length = 150)
     private String email;
 
     @Column(nullable = false, length = 255)
@@ -38,6 +50,12 @@ public class User {
     @Version
     private Long version;
 
+    /** Set by a soft delete; the row is hidden from every query until the purger removes it. */
+    @Builder.Default
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean deleted = false;
+
     @Builder.Default
     @ManyToMany
     @JoinTable(name = "user_roles",
@@ -45,6 +63,7 @@ public class User {
             inverseJoinColumns = @JoinColumn(name = "role_id", nullable = false),
             uniqueConstraints = @UniqueConstraint(name = "uk_user_roles_user_role", columnNames = {"user_id", "role_id"}))
     @BatchSize(size = 50)
+    @OptimisticLock(excluded = true)
     private Set<Role> roles = new LinkedHashSet<>();
 
     @Builder.Default
@@ -54,5 +73,6 @@ public class User {
             inverseJoinColumns = @JoinColumn(name = "group_id", nullable = false),
             uniqueConstraints = @UniqueConstraint(name = "uk_user_groups_user_group", columnNames = {"user_id", "group_id"}))
     @BatchSize(size = 50)
+    @OptimisticLock(excluded = true)
     private Set<Group> groups = new LinkedHashSet<>();
 }
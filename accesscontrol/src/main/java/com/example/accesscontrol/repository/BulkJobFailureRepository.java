@@ -0,0 +1,14 @@
+package com.example.accesscontrol.repository;
+
+import com.example.accesscontrol.entity.BulkJobFailure;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BulkJobFailureRepository extends JpaRepository<BulkJobFailure, Long> {
+
+    List<BulkJobFailure> findByJobIdOrderByChunkIndexAsc(Long jobId, Pageable pageable);
+}
@@ -0,0 +1,53 @@
+package com.example.accesscontrol.repository;
+
+import com.example.accesscontrol.entity.BulkJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Chunks of one job finish on several workers at once, so progress is applied as in-place
+ * increments rather than read-modify-write through the entity.
+ */
+@Repository
+public interface BulkJobRepository extends JpaRepository<BulkJob, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE BulkJob j SET j.status = :running, j.startedAt = :now WHERE j.id = :id AND j.status = :queued")
+    int markStarted(@Param("id") Long id,
+                    @Param("queued") BulkJob.Status queued,
+                    @Param("running") BulkJob.Status running,
+                    @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE BulkJob j
+               SET j.completedChunks = j.completedChunks + 1,
+                   j.processedItems = j.processedItems + :items,
+                   j.affectedRows = j.affectedRows + :affected
+             WHERE j.id = :id
+            """)
+    int chunkCompleted(@Param("id") Long id, @Param("items") int items, @Param("affected") int affected);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE BulkJob j
+               SET j.failedChunks = j.failedChunks + 1,
+                   j.failedItems = j.failedItems + :items
+             WHERE j.id = :id
+            """)
+    int chunkFailed(@Param("id") Long id, @Param("items") int items);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE BulkJob j SET j.status = :status, j.finishedAt = :now WHERE j.id = :id")
+    int markFinished(@Param("id") Long id, @Param("status") BulkJob.Status status, @Param("now") Instant now);
+}
@@ -20,4 +20,7 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
 
     @EntityGraph(attributePaths = {"users", "roles"})
     Optional<Group> findWithUsersAndRolesById(Long id);
+
+    @Query("SELECT g.id FROM Group g WHERE g.parent.id IN :ids AND g.id NOT IN :ids")
+    List<Long> findChildIdsOutside(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,17 @@
+package com.example.accesscontrol.repository;
+
+import com.example.accesscontrol.entity.HierarchyLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface HierarchyLockRepository extends JpaRepository<HierarchyLock, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM HierarchyLock l WHERE l.id = :id")
+    Optional<HierarchyLock> findForUpdate(@Param("id") Integer id);
+}
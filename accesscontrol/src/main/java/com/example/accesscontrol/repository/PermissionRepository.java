@@ -25,4 +25,7 @@ public interface PermissionRepository extends JpaRepository<Permission, Long> {
        ORDER BY p.name ASC, p.id ASC
        """)
     List<Permission> findByRoleId(@Param("roleId") Long roleId);
+
+    @Query("SELECT DISTINCT p.name FROM Role r JOIN r.permissions p WHERE r.id IN :roleIds")
+    List<String> findNamesByRoleIdIn(@Param("roleIds") Collection<Long> roleIds);
 }
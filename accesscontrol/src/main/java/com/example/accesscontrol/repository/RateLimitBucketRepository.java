@@ -0,0 +1,21 @@
+package com.example.accesscontrol.repository;
+
+import com.example.accesscontrol.entity.RateLimitBucket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RateLimitBucketRepository extends JpaRepository<RateLimitBucket, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM RateLimitBucket b WHERE b.id = :id")
+    Optional<RateLimitBucket> findForUpdate(@Param("id") String id);
+
+    @Modifying
+    @Query("DELETE FROM RateLimitBucket b WHERE b.fullAt < :now")
+    int deleteFullBefore(@Param("now") long now);
+}
@@ -0,0 +1,24 @@
+package com.example.accesscontrol.repository;
+
+import com.example.accesscontrol.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    @Query("SELECT t.id FROM RevokedToken t WHERE t.revokedAt >= :since AND t.expiresAt > :now")
+    List<String> findIdsRevokedSince(@Param("since") long since, @Param("now") long now);
+
+    @Query("SELECT t.id FROM RevokedToken t WHERE t.expiresAt > :now")
+    List<String> findUnexpiredIds(@Param("now") long now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") long now);
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,8 +14,20 @@ import java.util.Optional;
 public interface RoleRepository extends JpaRepository<Role, Long> {
     Optional<Role> findByName(String name);
 
+    List<Role> findByNameIn(Collection<String> names);
+
     @Query("SELECT r.name FROM Role r WHERE r.name IN :names")
     List<String> findExistingNames(@Param("names") List<String> names);
 
     Page<Role> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    @Query("SELECT DISTINCT r FROM Role r JOIN r.groups g WHERE g.id IN :groupIds")
+    List<Role> findByGroupIdIn(@Param("groupIds") Collection<Long> groupIds);
+
+    @Query("SELECT p FROM Role p JOIN p.inherits i WHERE i.id = :roleId")
+    List<Role> findByInheritsId(@Param("roleId") Long roleId);
+
+    /** Every role inherited, directly or not, by any of the given roles. */
+    @Query("SELECT r FROM Role r WHERE r.id IN (SELECT c.descendantId FROM RoleClosure c WHERE c.ancestorId IN :roleIds)")
+    List<Role> findInheritedByRoleIdIn(@Param("roleIds") Collection<Long> roleIds);
 }
@@ -0,0 +1,9 @@
+package com.example.accesscontrol.repository;
+
+import com.example.accesscontrol.entity.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+}
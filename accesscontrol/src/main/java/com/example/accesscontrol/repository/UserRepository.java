@@ -29,4 +29,22 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @EntityGraph(attributePaths = {"roles", "groups"})
     Optional<User> findWithRolesAndGroupsById(Long id);
+
+    @EntityGraph(attributePaths = {"roles", "groups"})
+    Optional<User> findWithRolesAndGroupsByEmail(String email);
+
+    /** Members of the group or of any group below it. */
+    @Query(value = """
+        select distinct u
+        from User u join u.groups g
+        where g.id = :groupId
+           or g.id in (select c.descendantId from GroupClosure c where c.ancestorId = :groupId)
+        """,
+            countQuery = """
+        select count(distinct u)
+        from User u join u.groups g
+        where g.id = :groupId
+           or g.id in (select c.descendantId from GroupClosure c where c.ancestorId = :groupId)
+        """)
+    Page<User> findInGroupTree(@Param("groupId") Long groupId, Pageable pageable);
 }
@@ -1,5 +1,8 @@
 package com.example.accesscontrol.security.jwt;
 
+import com.example.accesscontrol.config.TenantContext;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,6 +21,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -28,14 +32,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             if (StringUtils.hasText(token)
-                    && jwtTokenProvider.validateToken(token)
                     && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                String email = jwtTokenProvider.getEmailFromToken(token);
-                var userDetails = userDetailsService.loadUserByUsername(email);
-                var auth = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                SecurityContextHolder.getContext().setAuthentication(auth);
+                // One parse for signature, expiry and claims; null when the token is not valid
+                Claims claims = parseClaims(token);
+                if (claims != null && bindTenant(claims) && !tokenRevocationService.isRevoked(claims.getId())) {
+                    var userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                    var auth = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                }
             }
         } catch (Exception e) {
             logger.warn("JWT processing failed: " + e.getMessage());
@@ -44,6 +50,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
 
+    // A token only works in its own tenant; the tenant header may repeat it but not override it
+    private static boolean bindTenant(Claims claims) {
+        String tenant = JwtTokenProvider.tenantOf(claims);
+        if (TenantContext.isBound()) return TenantContext.current().equals(tenant);
+        TenantContext.bind(tenant);
+        return true;
+    }
+
+    private Claims parseClaims(String token) {
+        try {
+            return jwtTokenProvider.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearer = request.getHeader("Authorization");
         return (StringUtils.hasText(bearer) && bearer.startsWith("Bearer ")) ? bearer.substring(7) : null;
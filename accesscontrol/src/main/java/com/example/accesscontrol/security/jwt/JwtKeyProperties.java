@@ -0,0 +1,41 @@
+package com.example.accesscontrol.security.jwt;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/** Key rotation for jwt.algorithm RS256; ignored with HS256. */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "jwt.keys")
+public class JwtKeyProperties {
+
+    /** How long each key signs before the next one takes over. */
+    private Duration rotation = Duration.ofDays(30);
+
+    /**
+     * A new key is in the JWKS this long before it signs anything, so verifiers holding a cached
+     * copy have it by then. Must be longer than jwksMaxAge.
+     */
+    private Duration publishLead = Duration.ofHours(1);
+
+    /** Cache-Control max-age of the JWKS response. */
+    private Duration jwksMaxAge = Duration.ofMinutes(15);
+
+    /** How often each node reloads the keys and rotates when due. */
+    private Duration checkInterval = Duration.ofMinutes(1);
+
+    /** An unknown kid reloads the keys at most this often, so junk tokens cannot hammer the table. */
+    private Duration minReloadInterval = Duration.ofSeconds(10);
+
+    private int keySize = 2048;
+
+    /**
+     * When the switch from HS256 happened. Unset, tokens without a kid are rejected; set, those
+     * issued before it are still accepted until it is one token lifetime in the past.
+     */
+    private Instant legacyHs256Until;
+}
@@ -1,54 +1,126 @@
 package com.example.accesscontrol.security.jwt;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import com.example.accesscontrol.config.TenantContext;
+import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
+/**
+ * Issues and verifies tokens. With jwt.algorithm HS256 tokens are signed with jwt.secret;
+ * with RS256 they are signed by the current {@link SigningKeyStore} key and carry its kid, so
+ * other services can verify them against the JWKS endpoint. Tokens without a kid are checked
+ * against jwt.secret; in RS256 mode only those issued before jwt.keys.legacy-hs256-until are,
+ * and only until that moment is one token lifetime past, so the secret stops counting after a switch.
+ * Tokens name the tenant they were issued in; those issued before tenancy belong to the default one.
+ */
 @Component
+@RequiredArgsConstructor
 public class JwtTokenProvider {
+
+    public static final String TENANT_CLAIM = "tid";
+
     @Value("${jwt.secret}")
     private String secret;
 
+    @Value("${jwt.expiration:1h}")
+    private Duration expiration;
+
+    private final ObjectProvider<SigningKeyStore> signingKeyStore;
+    private final JwtKeyProperties keyProperties;
+
     private SecretKey secretKey;
+    private SigningKeyStore keys;
+    private JwtParser parser;
 
     @PostConstruct
     protected void init() {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.keys = signingKeyStore.getIfAvailable();
+        // jjwt rejects a key that does not fit the header's alg, so kid-less RS256 or kid'd HS256 fails
+        this.parser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                String kid = header.getKeyId();
+                if (kid == null) return legacyKey(claims);
+                Key key = keys == null ? null : keys.publicKey(kid);
+                if (key == null) throw new SignatureException("Unknown signing key " + kid);
+                return key;
+            }
+        }).build();
+    }
+
+    private Key legacyKey(Claims claims) {
+        if (keys == null) return secretKey;
+        Instant until = keyProperties.getLegacyHs256Until();
+        if (until == null) throw new SignatureException("HS256 tokens are not accepted");
+        Date issuedAt = claims.getIssuedAt();
+        if (issuedAt == null || !issuedAt.toInstant().isBefore(until)
+                || Instant.now().isAfter(until.plus(expiration))) {
+            throw new SignatureException("HS256 token outside the migration window");
+        }
+        return secretKey;
     }
 
     public String generateToken(String email) {
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + 1000L * 60L * 60L);
+        Date expiryDate = new Date(now.getTime() + expiration.toMillis());
         Claims claims = Jwts.claims().setSubject(email);
-        return Jwts.builder()
+        claims.put(TENANT_CLAIM, TenantContext.current());
+        JwtBuilder builder = Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(secretKey, SignatureAlgorithm.HS256)
+                .setExpiration(expiryDate);
+        if (keys == null) {
+            return builder.signWith(secretKey, SignatureAlgorithm.HS256).compact();
+        }
+        SigningKeyStore.LoadedKey key = keys.current();
+        if (key == null) throw new IllegalStateException("No active signing key");
+        return builder.setHeaderParam(JwsHeader.KEY_ID, key.kid())
+                .signWith(key.privateKey(), SignatureAlgorithm.RS256)
                 .compact();
     }
 
     public boolean validateToken(String token) {
         try{
-            Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token);
+            parser.parseClaimsJws(token);
             return true;
         }catch (Exception e){
             return false;
         }
     }
 
+    /** Verified claims; throws if the signature is bad or the token has expired. */
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     public String getEmailFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(secretKey).build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token).getSubject();
+    }
+
+    public static String tenantOf(Claims claims) {
+        String tenant = claims.get(TENANT_CLAIM, String.class);
+        return tenant == null ? TenantContext.DEFAULT : tenant;
+    }
+
+    /** Public keys for local verification elsewhere; empty with HS256. */
+    public Map<String, Object> jwks() {
+        return keys == null ? Map.of("keys", List.of()) : keys.jwks();
     }
 }
@@ -0,0 +1,62 @@
+package com.example.accesscontrol.security.jwt;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over token ids. A miss means the id was never added; a hit only
+ * means it may have been. Bits are set with CAS, so adds and lookups need no lock. There is no
+ * delete: expired ids leave when the filter is rebuilt.
+ */
+class RevocationBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long size;
+    private final int hashes;
+    private final long seed = new SecureRandom().nextLong();
+
+    RevocationBloomFilter(int expected, double falsePositiveRate) {
+        int n = Math.max(1, expected);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64));
+        this.size = bits.length() * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) size / n * Math.log(2)));
+    }
+
+    void add(String id) {
+        long h1 = hash(id, seed);
+        long h2 = hash(id, ~seed) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, size);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long cur;
+            while (((cur = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, cur, cur | mask)) {
+                // lost a race on this word, try again
+            }
+        }
+    }
+
+    boolean mightContain(String id) {
+        long h1 = hash(id, seed);
+        long h2 = hash(id, ~seed) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, size);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private static long hash(String key, long seed) {
+        long h = seed ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
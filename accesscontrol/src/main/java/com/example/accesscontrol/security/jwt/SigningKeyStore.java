@@ -0,0 +1,258 @@
+package com.example.accesscontrol.security.jwt;
+
+import com.example.accesscontrol.config.TenantContext;
+import com.example.accesscontrol.entity.SigningKey;
+import com.example.accesscontrol.repository.SigningKeyRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RS256 key pairs in the signing_keys table, shared by every node. The newest key whose
+ * activeFrom has passed signs; older keys stay published until every token they signed has
+ * expired. Each node reloads the table periodically and adds the next key once the current
+ * one is due, {@code publishLead} before it takes over. Two nodes rotating at the same moment
+ * both add a key, which is harmless: both are published and the newest signs.
+ *
+ * <p>Public keys are cached by kid. A kid that is not in the cache triggers a reload, at most
+ * once per {@code minReloadInterval}. The table lives in the default tenant's database whatever
+ * tenant the caller works for, and a key leaves the cache only after two reloads in a row
+ * have missed it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jwt.algorithm", havingValue = "RS256")
+@RequiredArgsConstructor
+public class SigningKeyStore {
+
+    private static final int IV_BYTES = 12;
+
+    private final SigningKeyRepository repository;
+    private final JwtKeyProperties props;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.expiration:1h}")
+    private Duration tokenLifetime;
+
+    private final Map<String, LoadedKey> keys = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private volatile LoadedKey current;
+    private volatile long lastReload;
+    // Serializes reloads and rotation; a lock rather than a monitor, since it is held across
+    // table reads on request threads, which may be virtual
+    private final ReentrantLock lock = new ReentrantLock();
+    // Cached kids the last reload did not find; guarded by lock
+    private Set<String> missed = Set.of();
+    private SecretKeySpec wrappingKey;
+    private ScheduledExecutorService scheduler;
+
+    /** A key as cached here; privateKey is null when it cannot be decrypted with this node's secret. */
+    public record LoadedKey(String kid, RSAPublicKey publicKey, PrivateKey privateKey, long activeFrom) {
+    }
+
+    @PostConstruct
+    void start() throws GeneralSecurityException {
+        if (props.getPublishLead().compareTo(props.getJwksMaxAge()) <= 0) {
+            throw new IllegalStateException("jwt.keys.publish-lead must be longer than jwt.keys.jwks-max-age");
+        }
+        wrappingKey = new SecretKeySpec(
+                MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8)), "AES");
+        refresh();
+        long every = props.getCheckInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("jwt-keys-"));
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException ex) {
+                log.warn("jwt.keys.refresh failed reason={}", ex.toString());
+            }
+        }, every, every, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public LoadedKey current() {
+        return current;
+    }
+
+    /** Public key for a kid, or null if no node has published it. */
+    public PublicKey publicKey(String kid) {
+        LoadedKey key = keys.get(kid);
+        if (key == null && System.currentTimeMillis() - lastReload >= props.getMinReloadInterval().toMillis()) {
+            lock.lock();
+            try {
+                if (System.currentTimeMillis() - lastReload >= props.getMinReloadInterval().toMillis()) reload();
+            } finally {
+                lock.unlock();
+            }
+            key = keys.get(kid);
+        }
+        return key == null ? null : key.publicKey();
+    }
+
+    /** Every published key, upcoming ones included, as a JWK set. */
+    public Map<String, Object> jwks() {
+        List<Map<String, Object>> out = keys.values().stream()
+                .sorted(Comparator.comparingLong(LoadedKey::activeFrom).reversed())
+                .map(k -> {
+                    Map<String, Object> jwk = new LinkedHashMap<>();
+                    jwk.put("kty", "RSA");
+                    jwk.put("use", "sig");
+                    jwk.put("alg", "RS256");
+                    jwk.put("kid", k.kid());
+                    jwk.put("n", base64Url(k.publicKey().getModulus()));
+                    jwk.put("e", base64Url(k.publicKey().getPublicExponent()));
+                    return jwk;
+                })
+                .toList();
+        return Map.of("keys", out);
+    }
+
+    // Scheduler thread, plus once at startup
+    private void refresh() {
+        lock.lock();
+        try {
+            TenantContext.runAs(TenantContext.DEFAULT, this::rotate);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rotate() {
+        reload();
+        long now = System.currentTimeMillis();
+
+        LoadedKey newest = keys.values().stream().max(Comparator.comparingLong(LoadedKey::activeFrom)).orElse(null);
+        boolean usable = keys.values().stream().anyMatch(k -> k.privateKey() != null);
+        if (newest == null || !usable) {
+            // Nothing has been signed with a key we could publish ahead of time
+            create(now);
+        } else if (newest.activeFrom() + props.getRotation().toMillis() - props.getPublishLead().toMillis() <= now) {
+            create(Math.max(now + props.getPublishLead().toMillis(), newest.activeFrom() + props.getRotation().toMillis()));
+        }
+
+        purge(now);
+        current = keys.values().stream()
+                .filter(k -> k.privateKey() != null && k.activeFrom() <= now)
+                .max(Comparator.comparingLong(LoadedKey::activeFrom).thenComparing(LoadedKey::kid))
+                .orElse(null);
+    }
+
+    // Request threads get here too, bound to whatever tenant the request named
+    private void reload() {
+        lastReload = System.currentTimeMillis();
+        List<SigningKey> rows = TenantContext.callAs(TenantContext.DEFAULT, repository::findAll);
+        Set<String> seen = new HashSet<>();
+        for (SigningKey row : rows) {
+            seen.add(row.getId());
+            keys.computeIfAbsent(row.getId(), id -> decode(row));
+        }
+        Set<String> missing = new HashSet<>(keys.keySet());
+        missing.removeAll(seen);
+        for (String kid : missing) {
+            if (missed.contains(kid)) keys.remove(kid);
+        }
+        missed = missing;
+    }
+
+    // A key is dropped once its successor has been signing for longer than a token lives
+    private void purge(long now) {
+        List<LoadedKey> byAge = keys.values().stream().sorted(Comparator.comparingLong(LoadedKey::activeFrom)).toList();
+        for (int i = 0; i + 1 < byAge.size(); i++) {
+            if (byAge.get(i + 1).activeFrom() + tokenLifetime.toMillis() + props.getPublishLead().toMillis() < now) {
+                repository.deleteById(byAge.get(i).kid());
+                keys.remove(byAge.get(i).kid());
+                log.info("jwt.keys.purged kid={}", byAge.get(i).kid());
+            }
+        }
+    }
+
+    private void create(long activeFrom) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(props.getKeySize(), random);
+            KeyPair pair = generator.generateKeyPair();
+            byte[] kidBytes = new byte[12];
+            random.nextBytes(kidBytes);
+            String kid = Base64.getUrlEncoder().withoutPadding().encodeToString(kidBytes);
+
+            repository.save(SigningKey.builder()
+                    .id(kid)
+                    .publicKey(pair.getPublic().getEncoded())
+                    .privateKey(wrap(pair.getPrivate().getEncoded()))
+                    .activeFrom(activeFrom)
+                    .build());
+            keys.put(kid, new LoadedKey(kid, (RSAPublicKey) pair.getPublic(), pair.getPrivate(), activeFrom));
+            log.info("jwt.keys.created kid={} activeFrom={}", kid, new Date(activeFrom).toInstant());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private LoadedKey decode(SigningKey row) {
+        try {
+            KeyFactory factory = KeyFactory.getInstance("RSA");
+            RSAPublicKey publicKey = (RSAPublicKey) factory.generatePublic(new X509EncodedKeySpec(row.getPublicKey()));
+            PrivateKey privateKey = null;
+            try {
+                privateKey = factory.generatePrivate(new PKCS8EncodedKeySpec(unwrap(row.getPrivateKey())));
+            } catch (GeneralSecurityException e) {
+                log.warn("jwt.keys.undecryptable kid={} reason={}", row.getId(), e.getClass().getSimpleName());
+            }
+            return new LoadedKey(row.getId(), publicKey, privateKey, row.getActiveFrom());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unreadable public key " + row.getId(), e);
+        }
+    }
+
+    private byte[] wrap(byte[] plain) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, wrappingKey, new GCMParameterSpec(128, iv));
+        byte[] sealed = cipher.doFinal(plain);
+        byte[] out = Arrays.copyOf(iv, IV_BYTES + sealed.length);
+        System.arraycopy(sealed, 0, out, IV_BYTES, sealed.length);
+        return out;
+    }
+
+    private byte[] unwrap(byte[] data) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, wrappingKey, new GCMParameterSpec(128, data, 0, IV_BYTES));
+        return cipher.doFinal(data, IV_BYTES, data.length - IV_BYTES);
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // Drop the sign byte BigInteger adds when the top bit is set
+        if (bytes.length > 1 && bytes[0] == 0) bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.accesscontrol.security.jwt;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TokenRevocationProperties.class)
+public class TokenRevocationConfig {
+}
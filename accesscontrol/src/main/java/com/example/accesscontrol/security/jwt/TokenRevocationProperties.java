@@ -0,0 +1,28 @@
+package com.example.accesscontrol.security.jwt;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "accesscontrol.token-revocation")
+public class TokenRevocationProperties {
+
+    /** How often revocations made on other nodes are pulled in; the window in which they still pass here. */
+    private Duration pollInterval = Duration.ofSeconds(5);
+
+    /** Each poll reaches back this far, for clock skew between nodes and slow commits. */
+    private Duration pollOverlap = Duration.ofSeconds(30);
+
+    /** How often expired rows are deleted and the filter is rebuilt without them. */
+    private Duration compactInterval = Duration.ofMinutes(10);
+
+    /** Revoked, unexpired tokens the filter is sized for; it grows on rebuild if there are more. */
+    private int expectedTokens = 100_000;
+
+    /** Share of live tokens that still cost a primary key lookup. */
+    private double falsePositiveRate = 0.01;
+}
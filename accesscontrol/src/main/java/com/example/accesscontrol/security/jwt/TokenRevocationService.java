@@ -0,0 +1,128 @@
+package com.example.accesscontrol.security.jwt;
+
+import com.example.accesscontrol.config.TenantContext;
+import com.example.accesscontrol.entity.RevokedToken;
+import com.example.accesscontrol.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revoked token ids live in the revoked_tokens table, which every node shares. Each node keeps
+ * a Bloom filter of them, so a token that was never revoked, the usual case, is cleared
+ * without touching the database; only filter hits are confirmed by primary key.
+ *
+ * <p>Revocations made here are visible at once. Those made on other nodes arrive with the
+ * next poll, so they can still pass here for up to the poll interval. Compaction deletes rows
+ * whose token has expired anyway and swaps in a filter rebuilt from the rest.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository repository;
+    private final TokenRevocationProperties props;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    private volatile RevocationBloomFilter filter;
+    private ScheduledExecutorService scheduler;
+    private TransactionTemplate tx;
+    private long lastPoll;
+
+    private Counter cleared;
+    private Counter revoked;
+    private Counter falsePositive;
+
+    @PostConstruct
+    void start() {
+        tx = new TransactionTemplate(transactionManager);
+        cleared = meterRegistry.counter("auth.token.revocation.checks", "result", "cleared");
+        revoked = meterRegistry.counter("auth.token.revocation.checks", "result", "revoked");
+        falsePositive = meterRegistry.counter("auth.token.revocation.checks", "result", "false_positive");
+
+        rebuild();
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("token-revocation-"));
+        long poll = props.getPollInterval().toMillis();
+        long compact = props.getCompactInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> run("poll", this::poll), poll, poll, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> run("compact", this::compact), compact, compact, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /** Tokens without a jti predate revocation support and stay valid until they expire. */
+    public boolean isRevoked(String jti) {
+        if (jti == null) return false;
+        if (!filter.mightContain(jti)) {
+            cleared.increment();
+            return false;
+        }
+        if (TenantContext.callAs(TenantContext.DEFAULT, () -> repository.existsById(jti))) {
+            revoked.increment();
+            return true;
+        }
+        falsePositive.increment();
+        return false;
+    }
+
+    public void revoke(String jti, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (jti == null || expiresAt <= now) return;
+        TenantContext.runAs(TenantContext.DEFAULT,
+                () -> repository.save(RevokedToken.builder().id(jti).expiresAt(expiresAt).revokedAt(now).build()));
+        filter.add(jti);
+    }
+
+    // Runs on the scheduler thread only, like poll, so the two never interleave
+    private void compact() {
+        long now = System.currentTimeMillis();
+        Integer deleted = tx.execute(s -> repository.deleteExpired(now));
+        rebuild();
+        log.info("auth.token.revocation.compacted deleted={}", deleted);
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        List<String> ids = repository.findUnexpiredIds(start);
+        RevocationBloomFilter next = new RevocationBloomFilter(
+                Math.max(props.getExpectedTokens(), ids.size() * 2), props.getFalsePositiveRate());
+        ids.forEach(next::add);
+        filter = next;
+        // Revocations committed while the ids were being read were added to the old filter only
+        lastPoll = start;
+        poll();
+    }
+
+    private void poll() {
+        long now = System.currentTimeMillis();
+        List<String> ids = repository.findIdsRevokedSince(lastPoll - props.getPollOverlap().toMillis(), now);
+        RevocationBloomFilter current = filter;
+        ids.forEach(current::add);
+        lastPoll = now;
+    }
+
+    private static void run(String task, Runnable r) {
+        try {
+            r.run();
+        } catch (RuntimeException ex) {
+            log.warn("auth.token.revocation.{} failed reason={}", task, ex.toString());
+        }
+    }
+}
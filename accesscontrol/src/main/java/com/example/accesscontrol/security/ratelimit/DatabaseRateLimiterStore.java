@@ -0,0 +1,85 @@
+package com.example.accesscontrol.security.ratelimit;
+
+import com.example.accesscontrol.config.TenantContext;
+import com.example.accesscontrol.entity.RateLimitBucket;
+import com.example.accesscontrol.repository.RateLimitBucketRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Token buckets in the rate_limit_buckets table, shared by every node. Each consume locks one
+ * row in its own short transaction; rows that have refilled completely are purged every
+ * {@value #PURGE_EVERY} calls, so the table only holds recently active keys.
+ */
+public class DatabaseRateLimiterStore implements RateLimiterStore {
+
+    private static final int PURGE_EVERY = 1024;
+
+    private final RateLimitBucketRepository repository;
+    private final TransactionTemplate tx;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    public DatabaseRateLimiterStore(RateLimitBucketRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public long tryConsume(String key, RateLimitProperties.Limit limit) {
+        // Buckets live on the shared database whoever is logging in
+        return TenantContext.callAs(TenantContext.DEFAULT, () -> consumeShared(key, limit));
+    }
+
+    private long consumeShared(String key, RateLimitProperties.Limit limit) {
+        String id = sha256(key);
+        if (calls.incrementAndGet() % PURGE_EVERY == 0) {
+            tx.executeWithoutResult(s -> repository.deleteFullBefore(System.currentTimeMillis()));
+        }
+        try {
+            return tx.execute(s -> consume(id, limit));
+        } catch (DataIntegrityViolationException ex) {
+            // Another node inserted the same bucket first; the row exists now
+            return tx.execute(s -> consume(id, limit));
+        }
+    }
+
+    private long consume(String id, RateLimitProperties.Limit limit) {
+        long now = System.currentTimeMillis();
+        double perMs = limit.tokensPerMilli();
+        RateLimitBucket bucket = repository.findForUpdate(id).orElse(null);
+
+        double tokens = bucket == null
+                ? limit.getCapacity()
+                : Math.min(limit.getCapacity(), bucket.getTokens() + (now - bucket.getUpdatedAt()) * perMs);
+        if (tokens < 1) {
+            return perMs <= 0 ? Long.MAX_VALUE : (long) Math.ceil((1 - tokens) / perMs);
+        }
+
+        tokens -= 1;
+        long fullAt = perMs <= 0 ? Long.MAX_VALUE : now + (long) Math.ceil((limit.getCapacity() - tokens) / perMs);
+        if (bucket == null) {
+            repository.saveAndFlush(RateLimitBucket.builder().id(id).tokens(tokens).updatedAt(now).fullAt(fullAt).build());
+        } else {
+            bucket.setTokens(tokens);
+            bucket.setUpdatedAt(now);
+            bucket.setFullAt(fullAt);
+        }
+        return 0;
+    }
+
+    private static String sha256(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
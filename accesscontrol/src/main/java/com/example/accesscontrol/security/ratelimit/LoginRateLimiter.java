@@ -0,0 +1,45 @@
+package com.example.accesscontrol.security.ratelimit;
+
+import com.example.accesscontrol.config.TenantContext;
+import com.example.accesscontrol.config.logs;
+import com.example.accesscontrol.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Checked before a login reaches the password hash: one bucket per client IP and one per
+ * normalized email within its tenant. Rejections become 429 with Retry-After.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginRateLimiter {
+
+    private final RateLimitProperties properties;
+    private final RateLimiterStore store;
+    private final logs logs;
+    private final MeterRegistry meterRegistry;
+
+    public void checkLogin(String clientIp, String email) {
+        if (!properties.isEnabled()) return;
+
+        long waitMs = 0;
+        if (clientIp != null) {
+            waitMs = store.tryConsume("ip:" + clientIp, properties.getIp());
+        }
+        if (waitMs == 0 && email != null && !email.isBlank()) {
+            String account = TenantContext.current() + ":" + email.strip().toLowerCase(Locale.ROOT);
+            waitMs = store.tryConsume("account:" + account, properties.getAccount());
+        }
+        if (waitMs > 0) {
+            log.info("auth.login.failed email={} ip={} reason=rate_limited", logs.mask(email), clientIp);
+            meterRegistry.counter("auth.login", "outcome", "rate_limited").increment();
+            long retryAfter = waitMs == Long.MAX_VALUE ? 3600 : Math.max(1, (waitMs + 999) / 1000);
+            throw new TooManyRequestsException("Too many login attempts, try again later", retryAfter);
+        }
+    }
+}
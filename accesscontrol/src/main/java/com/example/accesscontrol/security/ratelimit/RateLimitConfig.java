@@ -0,0 +1,26 @@
+package com.example.accesscontrol.security.ratelimit;
+
+import com.example.accesscontrol.repository.RateLimitBucketRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "accesscontrol.rate-limit.mode", havingValue = "memory", matchIfMissing = true)
+    public RateLimiterStore sketchRateLimiterStore(RateLimitProperties properties) {
+        return new SketchRateLimiterStore(properties.getSketchWidth(), properties.getSketchDepth());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "accesscontrol.rate-limit.mode", havingValue = "database")
+    public RateLimiterStore databaseRateLimiterStore(RateLimitBucketRepository repository,
+                                                     PlatformTransactionManager transactionManager) {
+        return new DatabaseRateLimiterStore(repository, transactionManager);
+    }
+}
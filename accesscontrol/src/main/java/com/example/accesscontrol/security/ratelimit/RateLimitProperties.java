@@ -0,0 +1,48 @@
+package com.example.accesscontrol.security.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "accesscontrol.rate-limit")
+public class RateLimitProperties {
+
+    public enum Mode { MEMORY, DATABASE }
+
+    private boolean enabled = true;
+
+    /** MEMORY keeps buckets per node; DATABASE shares them through the rate_limit_buckets table. */
+    private Mode mode = Mode.MEMORY;
+
+    /** Login attempts per client IP. */
+    private Limit ip = new Limit(20, 20);
+
+    /** Login attempts per normalized email. */
+    private Limit account = new Limit(5, 5);
+
+    /** Counters per sketch row in MEMORY mode; rounded up to a power of two. */
+    private int sketchWidth = 16_384;
+    private int sketchDepth = 4;
+
+    @Getter
+    @Setter
+    public static class Limit {
+        /** Bucket size, i.e. the allowed burst. */
+        private int capacity;
+        private int refillPerMinute;
+
+        public Limit() {
+        }
+
+        public Limit(int capacity, int refillPerMinute) {
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+        }
+
+        double tokensPerMilli() {
+            return refillPerMinute / 60_000.0;
+        }
+    }
+}
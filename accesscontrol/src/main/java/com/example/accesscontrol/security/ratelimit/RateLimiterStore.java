@@ -0,0 +1,11 @@
+package com.example.accesscontrol.security.ratelimit;
+
+public interface RateLimiterStore {
+
+    /**
+     * Takes one token from the bucket for {@code key}.
+     *
+     * @return 0 when a token was taken, otherwise the milliseconds until one is available
+     */
+    long tryConsume(String key, RateLimitProperties.Limit limit);
+}
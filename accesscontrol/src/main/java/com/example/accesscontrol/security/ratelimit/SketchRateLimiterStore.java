@@ -0,0 +1,84 @@
+package com.example.accesscontrol.security.ratelimit;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token buckets kept in a count-min style sketch: every key maps to one cell per row, and a
+ * key's tokens are the minimum over its cells. Memory is fixed whatever the number of keys;
+ * colliding keys can only make a bucket look emptier, never fuller. Cells are updated with
+ * CAS, so there are no locks. Row hashes use a random per-node seed, so clients cannot pick
+ * keys that collide on purpose.
+ */
+public class SketchRateLimiterStore implements RateLimiterStore {
+
+    // A cell packs the last update (ms since origin) above the token count in milli-tokens
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long ONE_TOKEN = 1000;
+
+    private final int width;
+    private final int depth;
+    private final long[] seeds;
+    private final long origin = System.currentTimeMillis() - 1;
+    private final Map<RateLimitProperties.Limit, AtomicLongArray> sketches = new ConcurrentHashMap<>();
+
+    public SketchRateLimiterStore(int width, int depth) {
+        this.width = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = Math.max(1, depth);
+        SecureRandom random = new SecureRandom();
+        this.seeds = new long[this.depth];
+        for (int i = 0; i < this.depth; i++) seeds[i] = random.nextLong();
+    }
+
+    @Override
+    public long tryConsume(String key, RateLimitProperties.Limit limit) {
+        AtomicLongArray cells = sketches.computeIfAbsent(limit, l -> new AtomicLongArray(width * depth));
+        long capacity = Math.min(TOKEN_MASK, limit.getCapacity() * ONE_TOKEN);
+        double perMs = limit.tokensPerMilli() * ONE_TOKEN;
+        long now = System.currentTimeMillis() - origin;
+
+        int[] index = new int[depth];
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            index[row] = row * width + (int) (hash(key, seeds[row]) & (width - 1));
+            min = Math.min(min, tokens(cells.get(index[row]), now, capacity, perMs));
+        }
+        if (min < ONE_TOKEN) {
+            return perMs <= 0 ? Long.MAX_VALUE : (long) Math.ceil((ONE_TOKEN - min) / perMs);
+        }
+
+        for (int i : index) {
+            long cell;
+            long next;
+            do {
+                cell = cells.get(i);
+                next = ((long) Math.max(0, now) << TOKEN_BITS)
+                        | Math.max(0, tokens(cell, now, capacity, perMs) - ONE_TOKEN);
+            } while (!cells.compareAndSet(i, cell, next));
+        }
+        return 0;
+    }
+
+    private static long tokens(long cell, long now, long capacity, double perMs) {
+        if (cell == 0) return capacity;
+        long updated = cell >>> TOKEN_BITS;
+        long tokens = cell & TOKEN_MASK;
+        long refill = (long) (Math.max(0, now - updated) * perMs);
+        return Math.min(capacity, tokens + refill);
+    }
+
+    private static long hash(String key, long seed) {
+        long h = seed ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
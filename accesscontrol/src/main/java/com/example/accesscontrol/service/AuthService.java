@@ -11,23 +11,30 @@ import com.example.accesscontrol.exception.InvalidCredentialsException;
 import com.example.accesscontrol.exception.UserDisabledException;
 import com.example.accesscontrol.exception.UserNotFoundException;
 import com.example.accesscontrol.security.jwt.JwtTokenProvider;
+import com.example.accesscontrol.security.jwt.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.regex.Pattern;
 
 @Slf4j
 @Service
+@Timed("accesscontrol.service")
 @RequiredArgsConstructor
 public class AuthService {
 
     private static final String INVALID_CREDENTIALS_MSG = "Invalid email or password";
+    private static final String MEMBER_ROLE = "MEMBER";
     private static final String DUMMY_BCRYPT =
             "$2a$10$7EqJtq98hPqEX7fNZaFWoOhiD7HkGKuGJySLjeRGna43EIBgzHuMG";
 
@@ -38,8 +45,11 @@ public class AuthService {
     private final UserService userService;
     private final RoleService roleService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final EmailAvailabilityService emailAvailability;
     private final PasswordEncoder passwordEncoder;
     private final logs logs;
+    private final MeterRegistry meterRegistry;
 
     @Transactional(readOnly = true)
     public LoginAuthResponse login(AuthRequest request) {
@@ -82,49 +92,70 @@ public class AuthService {
                 .build();
     }
 
+    public void logout(String token) {
+        final Claims claims;
+        try {
+            claims = jwtTokenProvider.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            log.info("auth.logout.failed reason=invalid_token");
+            meterRegistry.counter("auth.logout", "outcome", "invalid_token").increment();
+            throw new InvalidCredentialsException("Invalid or expired token");
+        }
+
+        tokenRevocationService.revoke(claims.getId(), claims.getExpiration().getTime());
+        log.info("auth.logout.success email={}", logs.mask(claims.getSubject()));
+        meterRegistry.counter("auth.logout", "outcome", "success").increment();
+    }
+
     @Transactional
     public RegisterAuthResponse register(AuthRequest request) {
         final String email = request.getEmail() == null ? null : request.getEmail().strip();
         final String rawPassword = request.getPassword();
 
         if (isInvalidEmail(email) || isInvalidPassword(rawPassword)) {
-            throw deny(email, "invalid_format");
+            auditRegisterFailure(email, "invalid_format");
+            throw new InvalidCredentialsException(INVALID_CREDENTIALS_MSG);
         }
 
-        if (userService.emailExists(email)) {
-            auditRegisterFailure(email, "email_in_use_precheck");
-            throw new EmailAlreadyUsedException("Email already in use");
-        }
+        // No pre-check SELECT: the unique email key is the source of truth, and the user row
+        // plus its user_roles link are written in a single flush.
+        User newUser = User.builder()
+                .email(email)
+                .password(passwordEncoder.encode(rawPassword))
+                .enabled(false)
+                .build();
+        newUser.getRoles().add(roleService.getRoleReference(MEMBER_ROLE));
 
+        final User saved;
         try {
-            User newUser = User.builder()
-                    .email(email)
-                    .password(passwordEncoder.encode(rawPassword))
-                    .enabled(false)
-                    .build();
-
-            User saved = userService.save(newUser);
-
-            Role member = roleService.getOrCreateRole("MEMBER");
-
-            if (saved.getRoles() == null) {
-                saved.setRoles(new LinkedHashSet<>());
+            saved = userService.saveAndFlush(newUser);
+        } catch (DataIntegrityViolationException ex) {
+            if (!isEmailConflict(ex)) {
+                roleService.evictRoleReference(MEMBER_ROLE);
+                throw ex;
             }
-            saved.getRoles().add(member);
-
-            userService.save(saved);
+            auditRegisterFailure(email, "email_in_use_violation");
+            throw new EmailAlreadyUsedException("Email already in use");
+        }
 
-            auditRegisterSuccess(saved.getId(), email);
+        emailAvailability.taken(email);
+        auditRegisterSuccess(saved.getId(), email);
 
-            return RegisterAuthResponse.builder()
-                    .userId(saved.getId())
-                    .roles(List.of(member.getName()))
-                    .build();
+        return RegisterAuthResponse.builder()
+                .userId(saved.getId())
+                .roles(List.of(MEMBER_ROLE))
+                .build();
+    }
 
-        } catch (DataIntegrityViolationException ex) {
-            auditRegisterFailure(email, "email_in_use_violation");
-            throw new EmailAlreadyUsedException("Email already in use");
+    // The only unique key a fresh users row can hit is email; anything else (a foreign key on
+    // user_roles) means the cached MEMBER role id went stale.
+    private boolean isEmailConflict(DataIntegrityViolationException ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException cve) {
+                return cve.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
+            }
         }
+        return true;
     }
 
     private InvalidCredentialsException deny(String email, String reason) {
@@ -142,17 +173,21 @@ public class AuthService {
 
     private void auditLoginFailure(String email, String reason) {
         log.info("auth.login.failed email={} reason={}", logs.mask(email), reason);
+        meterRegistry.counter("auth.login", "outcome", reason).increment();
     }
 
     private void auditLoginSuccess(Long userId, String email) {
         log.info("auth.login.success userId={} email={}", userId, logs.mask(email));
+        meterRegistry.counter("auth.login", "outcome", "success").increment();
     }
 
     private void auditRegisterSuccess(Long userId, String email) {
         log.info("auth.register.success userId={} email={}", userId, logs.mask(email));
+        meterRegistry.counter("auth.register", "outcome", "success").increment();
     }
 
     private void auditRegisterFailure(String email, String reason) {
         log.info("auth.register.failed email={} reason={}", logs.mask(email), reason);
+        meterRegistry.counter("auth.register", "outcome", reason).increment();
     }
 }
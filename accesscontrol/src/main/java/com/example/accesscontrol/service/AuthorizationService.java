@@ -0,0 +1,60 @@
+package com.example.accesscontrol.service;
+
+import com.example.accesscontrol.dto.authorization.EffectivePermissionsResponse;
+import com.example.accesscontrol.entity.Group;
+import com.example.accesscontrol.entity.Role;
+import com.example.accesscontrol.entity.User;
+import com.example.accesscontrol.exception.UserNotFoundException;
+import com.example.accesscontrol.repository.PermissionRepository;
+import com.example.accesscontrol.repository.RoleRepository;
+import com.example.accesscontrol.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Resolves what a user may do, for services that cache the answer and only come back when the
+ * change log says something relevant moved. Roles granted to a group count for its members and
+ * for the members of every group below it; groupIds lists those ancestor groups too and roleIds
+ * includes inherited roles, so a change to any of them reaches the cache.
+ */
+@Service
+@Timed("accesscontrol.service")
+@RequiredArgsConstructor
+public class AuthorizationService {
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PermissionRepository permissionRepository;
+    private final RoleHierarchyService hierarchy;
+    private final GroupHierarchyService groupHierarchy;
+
+    @Transactional(readOnly = true)
+    public EffectivePermissionsResponse getEffectivePermissions(String email) {
+        User user = userRepository.findWithRolesAndGroupsByEmail(email == null ? null : email.strip())
+                .orElseThrow(() -> new UserNotFoundException(email));
+
+        Map<Long, String> roles = new TreeMap<>();
+        user.getRoles().forEach(r -> roles.put(r.getId(), r.getName()));
+        List<Long> groupIds = groupHierarchy.withAncestors(user.getGroups().stream().map(Group::getId).toList());
+        if (!groupIds.isEmpty()) {
+            for (Role r : roleRepository.findByGroupIdIn(groupIds)) roles.put(r.getId(), r.getName());
+        }
+        for (Role r : hierarchy.inheritedRoles(roles.keySet())) roles.put(r.getId(), r.getName());
+        List<String> permissions = roles.isEmpty() ? List.of()
+                : permissionRepository.findNamesByRoleIdIn(roles.keySet()).stream().sorted().toList();
+
+        return EffectivePermissionsResponse.builder()
+                .userId(user.getId())
+                .email(user.getEmail())
+                .enabled(user.isEnabled())
+                .roles(roles.values().stream().sorted().toList())
+                .roleIds(List.copyOf(roles.keySet()))
+                .groupIds(groupIds)
+                .permissions(permissions)
+                .build();
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.accesscontrol.service;
+
+import com.example.accesscontrol.config.BulkJobProperties;
+import com.example.accesscontrol.config.TenantContext;
+import com.example.accesscontrol.config.TenantDatabases;
+import com.example.accesscontrol.config.logs;
+import com.example.accesscontrol.dto.job.BulkJobFailureResponse;
+import com.example.accesscontrol.dto.job.BulkJobResponse;
+import com.example.accesscontrol.dto.user.assignRolesToUser.AssignRolesRequest;
+import com.example.accesscontrol.dto.user.deassignUsersFromGroups.DeassignUsersFromGroupsRequest;
+import com.example.accesscontrol.dto.user.deleteUsers.DeleteUsersRequest;
+import com.example.accesscontrol.entity.BulkJob;
+import com.example.accesscontrol.entity.BulkJobFailure;
+import com.example.accesscontrol.exception.ResourceNotFoundException;
+import com.example.accesscontrol.repository.BulkJobFailureRepository;
+import com.example.accesscontrol.repository.BulkJobRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs the bulk user and role operations in the background. Ids are sorted and split into
+ * chunks; each chunk goes through the regular service method, so it is validated the same way
+ * and commits in its own transaction. A failed chunk is recorded and the job carries on.
+ *
+ * <p>Jobs live in the worker pool of the instance that took them and are not resumed elsewhere.
+ * That instance renews each unfinished job's heartbeat; once a heartbeat is older than the lease,
+ * because the instance stopped or crashed, any instance marks the job FAILED, leaving finishedAt
+ * empty since the moment it stopped is unknown. An instance that was only slow still records the
+ * real outcome when the job finishes.
+ */
+@Slf4j
+@Service
+@Timed("accesscontrol.service")
+@RequiredArgsConstructor
+public class BulkJobService {
+
+    private static final List<String> UNFINISHED = List.of(BulkJob.Status.QUEUED.name(), BulkJob.Status.RUNNING.name());
+
+    private final BulkJobRepository jobRepository;
+    private final BulkJobFailureRepository failureRepository;
+    private final UserService userService;
+    private final RoleService roleService;
+    private final BulkJobProperties props;
+    private final logs logs;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TenantDatabases databases;
+
+    // pid@host: a restarted instance does not renew the jobs of its previous run
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+    private ExecutorService workers;
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    void startWorkers() {
+        if (props.getLease().compareTo(props.getHeartbeat().multipliedBy(2)) < 0) {
+            throw new IllegalStateException("accesscontrol.bulk-jobs.lease must be at least twice the heartbeat");
+        }
+        workers = Executors.newFixedThreadPool(props.getWorkers(), new CustomizableThreadFactory("bulk-job-"));
+        heartbeat = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("bulk-job-heartbeat-"));
+        // The first sweep runs right away and fails what a stopped instance left behind
+        long every = props.getHeartbeat().toMillis();
+        heartbeat.scheduleWithFixedDelay(this::heartbeat, 0, every, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopWorkers() {
+        heartbeat.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        // Jobs of every tenant on a database share its table
+        for (String tenant : databases.representatives()) {
+            try {
+                TenantContext.runAs(tenant, () -> {
+                    jdbc.update("UPDATE bulk_jobs SET heartbeat_at = :now WHERE owner = :owner AND status IN (:unfinished)",
+                            Map.of("now", now, "owner", owner, "unfinished", UNFINISHED));
+                    int orphaned = jdbc.update("UPDATE bulk_jobs SET status = :failed WHERE status IN (:unfinished)"
+                                    + " AND (heartbeat_at IS NULL OR heartbeat_at < :expired)",
+                            Map.of("failed", BulkJob.Status.FAILED.name(), "unfinished", UNFINISHED,
+                                    "expired", now - props.getLease().toMillis()));
+                    if (orphaned > 0) {
+                        log.warn("jobs.orphaned database={} failed={}", databases.databaseOf(tenant), orphaned);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                log.warn("jobs.heartbeat failed database={} reason={}", databases.databaseOf(tenant), ex.toString());
+            }
+        }
+    }
+
+    public BulkJobResponse submitAssignRolesToUsers(AssignRolesRequest request) {
+        var userIds = ids(request == null ? null : request.getUserIds(), "User or role list is invalid");
+        var roleIds = ids(request.getRoleIds(), "User or role list is invalid");
+        return submit(BulkJob.Type.ASSIGN_ROLES_TO_USERS, userIds,
+                chunk -> userService.assignRolesToUsers(new AssignRolesRequest(chunk, roleIds)).getAssignedCount());
+    }
+
+    public BulkJobResponse submitDeassignUsersFromGroups(DeassignUsersFromGroupsRequest request) {
+        var userIds = ids(request == null ? null : request.getUserIds(), "User or group list is invalid");
+        var groupIds = ids(request.getGroupIds(), "User or group list is invalid");
+        return submit(BulkJob.Type.DEASSIGN_USERS_FROM_GROUPS, userIds, chunk -> {
+            var part = new DeassignUsersFromGroupsRequest();
+            part.setUserIds(chunk);
+            part.setGroupIds(groupIds);
+            return userService.deassignUsersFromGroups(part).getRemovedCount();
+        });
+    }
+
+    public BulkJobResponse submitDeleteUsers(DeleteUsersRequest request) {
+        var userIds = ids(request == null ? null : request.getUserIds(), "User ID list is invalid");
+        return submit(BulkJob.Type.DELETE_USERS, userIds, chunk -> {
+            var part = new DeleteUsersRequest();
+            part.setUserIds(chunk);
+            return userService.deleteUsers(part).getDeletedCount();
+        });
+    }
+
+    public BulkJobResponse submitDeleteRoles(List<Long> roleIds) {
+        var ids = ids(roleIds, "No valid role IDs provided");
+        return submit(BulkJob.Type.DELETE_ROLES, ids, chunk -> {
+            roleService.deleteRoles(chunk);
+            return chunk.size();
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public BulkJobResponse getJob(Long jobId) {
+        BulkJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Job not found: " + jobId));
+        var failures = job.getFailedChunks() == 0 ? List.<BulkJobFailure>of()
+                : failureRepository.findByJobIdOrderByChunkIndexAsc(jobId, PageRequest.of(0, props.getReportedFailures()));
+        return toResponse(job, failures);
+    }
+
+    private BulkJobResponse submit(BulkJob.Type type, List<Long> ids, ToIntFunction<List<Long>> action) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += props.getChunkSize()) {
+            chunks.add(ids.subList(i, Math.min(ids.size(), i + props.getChunkSize())));
+        }
+
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        String actor = (auth == null) ? "unknown" : auth.getName();
+        BulkJob job = jobRepository.save(BulkJob.builder()
+                .type(type)
+                .status(BulkJob.Status.QUEUED)
+                .createdBy(actor)
+                .owner(owner)
+                .heartbeatAt(System.currentTimeMillis())
+                .totalItems(ids.size())
+                .totalChunks(chunks.size())
+                .createdAt(Instant.now())
+                .build());
+
+        // Chunk methods read the actor from the security context, so it travels with the tasks, as does the tenant
+        SecurityContext context = SecurityContextHolder.getContext();
+        JobRun run = new JobRun(job.getId(), type, chunks, action);
+        int lanes = Math.min(props.getParallelism(), chunks.size());
+        for (int i = 0; i < lanes; i++) {
+            workers.execute(TenantContext.wrap(new DelegatingSecurityContextRunnable(run::drain, context)));
+        }
+
+        log.info("jobs.submit success actor={} jobId={} type={} items={} chunks={}",
+                logs.mask(actor), job.getId(), type, ids.size(), chunks.size());
+        return toResponse(job, List.of());
+    }
+
+    private static List<Long> ids(List<Long> raw, String message) {
+        if (raw == null || raw.isEmpty()) throw new IllegalArgumentException(message);
+        var ids = raw.stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().sorted().toList();
+        if (ids.isEmpty()) throw new IllegalArgumentException(message);
+        return ids;
+    }
+
+    private static BulkJobResponse toResponse(BulkJob job, List<BulkJobFailure> failures) {
+        return BulkJobResponse.builder()
+                .jobId(job.getId())
+                .type(job.getType())
+                .status(job.getStatus())
+                .totalItems(job.getTotalItems())
+                .processedItems(job.getProcessedItems())
+                .failedItems(job.getFailedItems())
+                .affectedRows(job.getAffectedRows())
+                .totalChunks(job.getTotalChunks())
+                .completedChunks(job.getCompletedChunks())
+                .failedChunks(job.getFailedChunks())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .failures(failures.stream()
+                        .map(f -> BulkJobFailureResponse.builder()
+                                .chunkIndex(f.getChunkIndex())
+                                .firstItemId(f.getFirstItemId())
+                                .lastItemId(f.getLastItemId())
+                                .items(f.getItems())
+                                .message(f.getMessage())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    /** Shared by the job's lanes; each lane keeps taking the next unclaimed chunk. */
+    private final class JobRun {
+        private final long jobId;
+        private final BulkJob.Type type;
+        private final List<List<Long>> chunks;
+        private final ToIntFunction<List<Long>> action;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        JobRun(long jobId, BulkJob.Type type, List<List<Long>> chunks, ToIntFunction<List<Long>> action) {
+            this.jobId = jobId;
+            this.type = type;
+            this.chunks = chunks;
+            this.action = action;
+        }
+
+        void drain() {
+            if (started.compareAndSet(false, true)) {
+                jobRepository.markStarted(jobId, BulkJob.Status.QUEUED, BulkJob.Status.RUNNING, Instant.now());
+            }
+            int index;
+            while ((index = next.getAndIncrement()) < chunks.size()) {
+                runChunk(index);
+            }
+        }
+
+        private void runChunk(int index) {
+            List<Long> chunk = chunks.get(index);
+            try {
+                int affected = action.applyAsInt(chunk);
+                jobRepository.chunkCompleted(jobId, chunk.size(), affected);
+            } catch (RuntimeException ex) {
+                failed.incrementAndGet();
+                String message = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+                log.warn("jobs.chunk failed jobId={} type={} chunk={} firstId={} lastId={} reason={}",
+                        jobId, type, index, chunk.get(0), chunk.get(chunk.size() - 1), message);
+                recordFailure(index, chunk, message);
+            } finally {
+                // Counted whatever happened above, or the job would never leave RUNNING
+                if (done.incrementAndGet() == chunks.size()) finish();
+            }
+        }
+
+        private void recordFailure(int index, List<Long> chunk, String message) {
+            try {
+                jobRepository.chunkFailed(jobId, chunk.size());
+                failureRepository.save(BulkJobFailure.builder()
+                        .jobId(jobId)
+                        .chunkIndex(index)
+                        .firstItemId(chunk.get(0))
+                        .lastItemId(chunk.get(chunk.size() - 1))
+                        .items(chunk.size())
+                        .message(message.length() > 500 ? message.substring(0, 500) : message)
+                        .build());
+            } catch (RuntimeException ex) {
+                log.warn("jobs.chunk record_failure failed jobId={} chunk={} reason={}", jobId, index, ex.toString());
+            }
+        }
+
+        private void finish() {
+            int failedChunks = failed.get();
+            BulkJob.Status status = failedChunks == 0 ? BulkJob.Status.COMPLETED
+                    : failedChunks == chunks.size() ? BulkJob.Status.FAILED
+                    : BulkJob.Status.COMPLETED_WITH_ERRORS;
+            jobRepository.markFinished(jobId, status, Instant.now());
+            log.info("jobs.finish jobId={} type={} status={} chunks={} failedChunks={}",
+                    jobId, type, status, chunks.size(), failedChunks);
+        }
+    }
+}
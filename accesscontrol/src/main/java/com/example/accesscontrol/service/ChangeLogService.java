@@ -0,0 +1,214 @@
+package com.example.accesscontrol.service;
+
+import com.example.accesscontrol.config.ChangeLogProperties;
+import com.example.accesscontrol.config.TenantContext;
+import com.example.accesscontrol.config.TenantDatabases;
+import com.example.accesscontrol.dto.change.ChangeResponse;
+import com.example.accesscontrol.dto.change.ChangesResponse;
+import com.example.accesscontrol.entity.ChangeLogEntry;
+import com.example.accesscontrol.entity.ChangeLogHead;
+import com.example.accesscontrol.repository.ChangeLogRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only log of changes that affect someone's effective roles or permissions. Entries
+ * are written in the caller's transaction, so they commit or roll back with the change, and
+ * consumers read them in sequence order to invalidate what they cached.
+ *
+ * <p>Entries are held until the transaction is about to commit, then numbered from the
+ * {@link ChangeLogHead} row and inserted. The row stays locked until commit, so the next
+ * transaction numbers its entries only after this one's are visible: a reader that sees an
+ * entry has already seen every one before it, and a rollback gives its numbers back. The
+ * price is that recording transactions on one database commit one at a time.
+ *
+ * <p>Each database has one sequence for all of its tenants. A tenant's read walks that
+ * sequence and keeps only its own entries.
+ */
+@Slf4j
+@Service
+@Timed("accesscontrol.service")
+@RequiredArgsConstructor
+public class ChangeLogService {
+
+    private static final String INSERT =
+            "INSERT INTO change_log (id, tenant_id, entity_type, entity_id, action, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Before TableVersions' bump, in every transaction, so the two never lock in opposite orders
+    private static final int SYNCHRONIZATION_ORDER = 0;
+
+    private final ChangeLogRepository repository;
+    private final JdbcTemplate jdbc;
+    private final ChangeLogProperties props;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher events;
+    private final TenantDatabases databases;
+
+    private ScheduledExecutorService purger;
+
+    /** Published inside the recording transaction; listen after commit to see the entries. */
+    public record Recorded(int entries) {
+    }
+
+    @PostConstruct
+    void init() {
+        // Each database numbers its own log, continuing from what is already there
+        for (String tenant : databases.representatives()) {
+            try {
+                TenantContext.runAs(tenant, () -> jdbc.update(
+                        "INSERT INTO change_log_head (id, seq) SELECT ?, COALESCE(MAX(id), 0) FROM change_log"
+                                + " WHERE NOT EXISTS (SELECT 1 FROM change_log_head WHERE id = ?)",
+                        ChangeLogHead.ID, ChangeLogHead.ID));
+            } catch (DataIntegrityViolationException race) {
+                // Another node created it first
+            }
+        }
+        startPurger();
+    }
+
+    private void startPurger() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long every = props.getPurgeInterval().toMillis();
+        purger = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("change-log-purge-"));
+        purger.scheduleWithFixedDelay(() -> {
+            // Every database keeps its own log
+            for (String tenant : databases.representatives()) {
+                try {
+                    TenantContext.runAs(tenant, () -> {
+                        long head = repository.findHead();
+                        Integer purged = tx.execute(s -> repository.deleteOlderThan(
+                                System.currentTimeMillis() - props.getRetention().toMillis(), head));
+                        if (purged != null && purged > 0) {
+                            log.info("change_log.purge success database={} deleted={}", databases.databaseOf(tenant), purged);
+                        }
+                    });
+                } catch (RuntimeException ex) {
+                    log.warn("change_log.purge failed database={} reason={}", databases.databaseOf(tenant), ex.toString());
+                }
+            }
+        }, every, every, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopPurger() {
+        purger.shutdownNow();
+    }
+
+    /** Must run inside the transaction that makes the change; the entries are written as it commits. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ChangeLogEntry.EntityType type, Collection<Long> ids, String action) {
+        if (ids == null || ids.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        String tenant = TenantContext.current();
+        List<Object[]> pending = pending();
+        for (Long id : ids) pending.add(new Object[]{null, tenant, type.name(), id, action, now});
+        events.publishEvent(new Recorded(ids.size()));
+    }
+
+    private List<Object[]> pending() {
+        @SuppressWarnings("unchecked")
+        List<Object[]> pending = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) return pending;
+
+        List<Object[]> rows = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, rows);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return SYNCHRONIZATION_ORDER;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                append(rows);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLogService.this);
+            }
+        });
+        return rows;
+    }
+
+    // Locks the head row until the surrounding transaction ends
+    private void append(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        int taken = jdbc.update("UPDATE change_log_head SET seq = seq + ? WHERE id = ?", rows.size(), ChangeLogHead.ID);
+        if (taken == 0) throw new IllegalStateException("change_log_head row is missing");
+        Long last = jdbc.queryForObject("SELECT seq FROM change_log_head WHERE id = ?", Long.class, ChangeLogHead.ID);
+        long seq = last - rows.size();
+        for (Object[] row : rows) row[0] = ++seq;
+        jdbc.batchUpdate(INSERT, rows);
+    }
+
+    /** Sequence number of the newest entry, 0 when the log is empty. */
+    @Transactional(readOnly = true)
+    public long head() {
+        return repository.findHead();
+    }
+
+    /** The current tenant's entries after {@code since}; without it, just the current head to start from. */
+    @Transactional(readOnly = true)
+    public ChangesResponse changesSince(Long since, int limit) {
+        return changesSince(since, limit, TenantContext.current());
+    }
+
+    /**
+     * Entries after {@code since} for {@code tenant}, or for every tenant on the current
+     * database when it is null. {@code next} covers the other tenants' entries as well, and a
+     * page can come back short of {@code limit} even when more is waiting.
+     */
+    @Transactional(readOnly = true)
+    public ChangesResponse changesSince(Long since, int limit, String tenant) {
+        if (since == null || since < 0) {
+            return ChangesResponse.builder().changes(List.of()).next(repository.findHead()).build();
+        }
+
+        Long tail = repository.findTail();
+        if (tail != null && since < tail - 1 && since < repository.findHead()) {
+            log.info("change_log.read reset since={} tail={}", since, tail);
+            return ChangesResponse.builder().changes(List.of()).next(repository.findHead()).reset(true).build();
+        }
+
+        int size = Math.max(1, Math.min(limit, props.getMaxBatch()));
+        List<ChangeResponse> out = new ArrayList<>();
+        long next = since;
+        for (ChangeLogEntry e : repository.findAfter(since, PageRequest.of(0, size))) {
+            next = e.getId();
+            if (tenant != null && !tenant.equals(e.getTenantId())) continue;
+            out.add(ChangeResponse.builder()
+                    .seq(e.getId())
+                    .type(e.getEntityType())
+                    .id(e.getEntityId())
+                    .action(e.getAction())
+                    .at(Instant.ofEpochMilli(e.getCreatedAt()))
+                    .tenant(e.getTenantId())
+                    .build());
+        }
+        return ChangesResponse.builder().changes(out).next(next).build();
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.accesscontrol.service;
+
+import com.example.accesscontrol.config.ChangeLogProperties;
+import com.example.accesscontrol.config.TenantContext;
+import com.example.accesscontrol.config.TenantDatabases;
+import com.example.accesscontrol.dto.change.ChangeResponse;
+import com.example.accesscontrol.dto.change.ChangesResponse;
+import com.example.accesscontrol.exception.TooManyRequestsException;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes the change log to subscribers as server-sent events. One thread reads the table for
+ * everybody and appends new entries to each subscriber's bounded queue; each queue is drained
+ * by that subscriber's own sender task, so a slow connection holds up nobody else.
+ *
+ * <p>A subscriber whose queue is full stops receiving from the shared reader and is fed from
+ * the table at its own pace until it is level again, which is also how a new subscriber
+ * catches up from {@code since}. One that is still behind after {@code maxLag} gets an
+ * {@code overflow} event carrying the last sequence number it was sent and is disconnected.
+ * Event ids are sequence numbers, so reconnecting with Last-Event-ID resumes where it stopped.
+ * A position that has already been purged is answered with a {@code reset} event, as
+ * {@code GET /api/changes} does.
+ *
+ * <p>Subscribers only see their own tenant's entries. Each database has its own sequence, so
+ * the shared reader keeps one position per database that has subscribers.
+ */
+@Slf4j
+@Service
+@Timed("accesscontrol.service")
+@RequiredArgsConstructor
+public class ChangeStreamService {
+
+    // Queue marker for a keep-alive comment
+    private static final ChangeResponse HEARTBEAT = new ChangeResponse();
+
+    private final ChangeLogService changeLog;
+    private final ChangeLogProperties props;
+    private final MeterRegistry meterRegistry;
+    private final TenantDatabases databases;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private ScheduledExecutorService dispatcher;
+    private ThreadPoolExecutor senders;
+
+    // Last sequence handed to the queues, per database with subscribers; guarded by lock.
+    // Held across table reads, so a lock rather than a monitor: a virtual thread waiting on it
+    // or reading under it does not pin its carrier.
+    private final Map<String, Long> cursors = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final String tenant;
+        final String database;
+        final BlockingQueue<ChangeResponse> queue;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // Nonzero while the subscriber is fed from the table rather than its queue
+        volatile long laggingSince;
+        volatile boolean closed;
+        // Only touched by the sender task, which never runs twice at once
+        long sent;
+
+        Subscriber(SseEmitter emitter, String tenant, String database, int bufferSize, long from) {
+            this.emitter = emitter;
+            this.tenant = tenant;
+            this.database = database;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+            this.sent = from;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        ChangeLogProperties.Stream cfg = props.getStream();
+        dispatcher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("change-stream-"));
+        long every = cfg.getPollInterval().toMillis();
+        dispatcher.scheduleWithFixedDelay(this::dispatchQuietly, every, every, TimeUnit.MILLISECONDS);
+        long beat = cfg.getHeartbeat().toMillis();
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, beat, beat, TimeUnit.MILLISECONDS);
+
+        // A subscriber never has more than one task, so the pool never needs to queue
+        senders = new ThreadPoolExecutor(0, cfg.getMaxSubscribers(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new CustomizableThreadFactory("change-stream-send-"));
+
+        Gauge.builder("changes.stream.subscribers", subscribers, Set::size)
+                .description("Open change stream subscriptions")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(s -> s.emitter.complete());
+    }
+
+    /** Streams every change after {@code since}; without it, only what happens from now on. */
+    public SseEmitter subscribe(Long since) {
+        ChangeLogProperties.Stream cfg = props.getStream();
+        SseEmitter emitter = new SseEmitter(cfg.getTimeout().toMillis());
+        String tenant = TenantContext.current();
+        String database = databases.databaseOf(tenant);
+        Subscriber s;
+        lock.lock();
+        try {
+            if (subscribers.size() >= cfg.getMaxSubscribers()) {
+                meterRegistry.counter("changes.stream.rejected").increment();
+                throw new TooManyRequestsException("Too many change stream subscribers", cfg.getHeartbeat().toSeconds());
+            }
+            long cursor = cursors.computeIfAbsent(database, d -> changeLog.head());
+            long from = (since == null || since < 0) ? cursor : Math.min(since, cursor);
+            s = new Subscriber(emitter, tenant, database, cfg.getBufferSize(), from);
+            if (from < cursor) s.laggingSince = System.nanoTime();
+            subscribers.add(s);
+        } finally {
+            lock.unlock();
+        }
+        emitter.onCompletion(() -> remove(s, "completed"));
+        emitter.onTimeout(() -> remove(s, "timeout"));
+        emitter.onError(ex -> remove(s, "error"));
+        log.info("changes.stream.subscribe tenant={} from={} subscribers={}", tenant, s.sent, subscribers.size());
+        schedule(s);
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    void onRecorded(ChangeLogService.Recorded event) {
+        if (subscribers.isEmpty() || !wakeupPending.compareAndSet(false, true)) return;
+        try {
+            dispatcher.execute(() -> {
+                wakeupPending.set(false);
+                dispatchQuietly();
+            });
+        } catch (RejectedExecutionException ignored) {
+            // Shutting down
+        }
+    }
+
+    private void dispatchQuietly() {
+        try {
+            dispatch();
+        } catch (RuntimeException ex) {
+            log.warn("changes.stream.dispatch failed reason={}", ex.toString());
+        }
+    }
+
+    private void dispatch() {
+        if (subscribers.isEmpty()) return;
+        lock.lock();
+        try {
+            for (Map.Entry<String, Long> cursor : cursors.entrySet()) dispatch(cursor);
+        } finally {
+            lock.unlock();
+        }
+        for (Subscriber s : subscribers) {
+            if (s.laggingSince != 0 || !s.queue.isEmpty()) schedule(s);
+        }
+    }
+
+    // Reads the database as one of its subscribers' tenants, which is what routes the connection there
+    private void dispatch(Map.Entry<String, Long> cursor) {
+        List<Subscriber> readers = subscribers.stream().filter(s -> s.database.equals(cursor.getKey())).toList();
+        if (readers.isEmpty()) return;
+        int batch = props.getMaxBatch();
+        TenantContext.runAs(readers.get(0).tenant, () -> {
+            ChangesResponse page;
+            do {
+                page = changeLog.changesSince(cursor.getValue(), batch, null);
+                if (page.isReset()) {
+                    // This node stopped reading for longer than the retention; everyone catches up from the table
+                    readers.forEach(this::lag);
+                }
+                for (ChangeResponse c : page.getChanges()) {
+                    for (Subscriber s : readers) {
+                        if (s.laggingSince == 0 && s.tenant.equals(c.getTenant()) && !s.queue.offer(c)) lag(s);
+                    }
+                }
+                cursor.setValue(page.getNext());
+            } while (page.getChanges().size() >= batch);
+        });
+    }
+
+    private void lag(Subscriber s) {
+        if (s.laggingSince == 0) s.laggingSince = System.nanoTime();
+    }
+
+    private void heartbeat() {
+        long stuck = 2 * props.getStream().getMaxLag().toNanos();
+        for (Subscriber s : subscribers) {
+            long since = s.laggingSince;
+            if (since != 0 && System.nanoTime() - since > stuck) {
+                // The sender is blocked in a write the peer never reads; nothing more can be said to it
+                remove(s, "stalled");
+                s.emitter.complete();
+            } else if (s.queue.isEmpty() && s.queue.offer(HEARTBEAT)) {
+                schedule(s);
+            }
+        }
+    }
+
+    private void remove(Subscriber s, String reason) {
+        s.closed = true;
+        if (subscribers.remove(s)) {
+            meterRegistry.counter("changes.stream.disconnects", "reason", reason).increment();
+        }
+        lock.lock();
+        try {
+            if (subscribers.stream().noneMatch(o -> o.database.equals(s.database))) cursors.remove(s.database);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void schedule(Subscriber s) {
+        if (s.closed || !s.scheduled.compareAndSet(false, true)) return;
+        try {
+            senders.execute(() -> TenantContext.runAs(s.tenant, () -> drain(s)));
+        } catch (RejectedExecutionException ex) {
+            s.scheduled.set(false);
+            remove(s, "rejected");
+            s.emitter.complete();
+        }
+    }
+
+    // Sender thread; a send blocks while the peer is not reading, which only stalls this subscriber
+    private void drain(Subscriber s) {
+        try {
+            if (s.laggingSince != 0) catchUp(s);
+            ChangeResponse c;
+            while (!s.closed && s.laggingSince == 0 && (c = s.queue.poll()) != null) {
+                if (c == HEARTBEAT) {
+                    s.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else if (c.getSeq() > s.sent) {
+                    send(s, c);
+                }
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // Peer gone or emitter already completed; the container reports the rest
+            remove(s, "error");
+        } catch (RuntimeException ex) {
+            log.warn("changes.stream.send failed reason={}", ex.toString());
+            remove(s, "error");
+            s.emitter.complete();
+        } finally {
+            s.scheduled.set(false);
+            // A lagging subscriber only gets here on an empty read; the next tick tries again
+            if (!s.closed && s.laggingSince == 0 && !s.queue.isEmpty()) schedule(s);
+        }
+    }
+
+    // Reads from the table up to the shared cursor, then rejoins the queue under the dispatcher's lock
+    private void catchUp(Subscriber s) throws IOException {
+        int batch = props.getMaxBatch();
+        long maxLag = props.getStream().getMaxLag().toNanos();
+        while (!s.closed) {
+            if (System.nanoTime() - s.laggingSince > maxLag) {
+                remove(s, "overflow");
+                s.emitter.send(SseEmitter.event().name("overflow").data(Map.of("resumeFrom", s.sent)));
+                s.emitter.complete();
+                log.info("changes.stream.overflow resumeFrom={}", s.sent);
+                return;
+            }
+            lock.lock();
+            try {
+                Long cursor = cursors.get(s.database);
+                if (cursor == null || s.sent >= cursor) {
+                    // Everything queued before the lag is at or below sent
+                    s.queue.clear();
+                    s.laggingSince = 0;
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            ChangesResponse page = changeLog.changesSince(s.sent, batch, s.tenant);
+            if (page.isReset()) {
+                s.emitter.send(SseEmitter.event()
+                        .id(Long.toString(page.getNext()))
+                        .name("reset")
+                        .data(Map.of("next", page.getNext())));
+                s.sent = page.getNext();
+            } else if (page.getNext() == s.sent) {
+                return;
+            }
+            for (ChangeResponse c : page.getChanges()) send(s, c);
+            // Other tenants' entries move the position too
+            s.sent = Math.max(s.sent, page.getNext());
+        }
+    }
+
+    private static void send(Subscriber s, ChangeResponse c) throws IOException {
+        s.emitter.send(SseEmitter.event()
+                .id(Long.toString(c.getSeq()))
+                .name("change")
+                .data(c, MediaType.APPLICATION_JSON));
+        s.sent = c.getSeq();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.accesscontrol.service;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter with a 4-bit counter per slot instead of a bit, so keys can be removed again.
+ * A miss means the key is not in the set; a hit only that it may be. Counters are updated with
+ * CAS, sixteen to a word. One that reaches 15 stays there, since its real count is lost, until
+ * the filter is rebuilt.
+ */
+class CountingBloomFilter {
+
+    private static final long MAX = 15;
+
+    private final AtomicLongArray words;
+    private final long slots;
+    private final int hashes;
+    private final long seed = new SecureRandom().nextLong();
+
+    CountingBloomFilter(int expected, double falsePositiveRate) {
+        int n = Math.max(1, expected);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE - 8, (m + 15) / 16));
+        this.slots = words.length() * 16L;
+        this.hashes = Math.max(1, (int) Math.round((double) slots / n * Math.log(2)));
+    }
+
+    void add(String key) {
+        update(key, true);
+    }
+
+    /** Only for keys that were added; removing anything else can hide keys that were. */
+    void remove(String key) {
+        if (mightContain(key)) update(key, false);
+    }
+
+    boolean mightContain(String key) {
+        long h1 = hash(key, seed);
+        long h2 = hash(key, ~seed) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long slot = Math.floorMod(h1 + i * h2, slots);
+            if (((words.get((int) (slot >>> 4)) >>> shift(slot)) & MAX) == 0) return false;
+        }
+        return true;
+    }
+
+    private void update(String key, boolean increment) {
+        long h1 = hash(key, seed);
+        long h2 = hash(key, ~seed) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long slot = Math.floorMod(h1 + i * h2, slots);
+            int word = (int) (slot >>> 4);
+            int shift = shift(slot);
+            long cur;
+            long count;
+            do {
+                cur = words.get(word);
+                count = (cur >>> shift) & MAX;
+                if (count == MAX || (!increment && count == 0)) break;
+            } while (!words.compareAndSet(word, cur, increment ? cur + (1L << shift) : cur - (1L << shift)));
+        }
+    }
+
+    private static int shift(long slot) {
+        return (int) (slot & 15) << 2;
+    }
+
+    private static long hash(String key, long seed) {
+        long h = seed ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -9,13 +9,16 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserService userService;
+    private final RoleHierarchyService hierarchy;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -26,8 +29,17 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException(ex.getMessage(), ex);
         }
 
-        List<GrantedAuthority> authorities = u.getRoles().stream()
-                .map(Role::getName)
+        List<Role> inherited = u.getRoles().isEmpty() ? List.of()
+                : hierarchy.inheritedRoles(u.getRoles().stream().map(Role::getId).toList());
+        return toUserDetails(u, inherited);
+    }
+
+    /** The user's own roles followed by the inherited ones, each granted once. */
+    public static UserDetails toUserDetails(User u, List<Role> inherited) {
+        Set<String> roles = new LinkedHashSet<>();
+        u.getRoles().forEach(r -> roles.add(r.getName()));
+        inherited.forEach(r -> roles.add(r.getName()));
+        List<GrantedAuthority> authorities = roles.stream()
                 .map(r -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + r))
                 .toList();
 
@@ -0,0 +1,162 @@
+package com.example.accesscontrol.service;
+
+import com.example.accesscontrol.config.DeletionProperties;
+import com.example.accesscontrol.config.TableVersions;
+import com.example.accesscontrol.config.TenantContext;
+import com.example.accesscontrol.config.TenantDatabases;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finishes soft deletes. For rows marked deleted it removes their assignments and then the
+ * rows themselves, in id order, one chunk per transaction with a pause after each, so taking
+ * apart a role held by a million users never holds locks for long. Deleted rows are already
+ * invisible to every query, so how long this takes only matters for disk space and for names
+ * and emails, which stay taken until their row is gone.
+ *
+ * <p>Works in plain SQL on all tenants of a database at once, one database after the other.
+ * Nothing injects it, so it starts as a lifecycle bean, which lazy initialization leaves alone.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeletionPurgeService implements SmartLifecycle {
+
+    /** Join table rows pointing at a purged entity through {@code column}. */
+    private record Link(String table, String column, String other) {
+    }
+
+    private record Target(String table, List<Link> links) {
+    }
+
+    private static final List<Target> TARGETS = List.of(
+            new Target("users", List.of(
+                    new Link("user_roles", "user_id", "role_id"),
+                    new Link("user_groups", "user_id", "group_id"))),
+            new Target("roles", List.of(
+                    new Link("user_roles", "role_id", "user_id"),
+                    new Link("group_roles", "role_id", "group_id"),
+                    new Link("role_permissions", "role_id", "permission_id"))),
+            new Target("`groups`", List.of(
+                    new Link("user_groups", "group_id", "user_id"),
+                    new Link("group_roles", "group_id", "role_id"))),
+            new Target("permissions", List.of(
+                    new Link("role_permissions", "permission_id", "role_id"))));
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final PlatformTransactionManager transactionManager;
+    private final DeletionProperties props;
+    private final TenantDatabases databases;
+    private final TableVersions tableVersions;
+
+    private volatile ScheduledExecutorService purger;
+
+    @Override
+    public void start() {
+        long every = props.getPurgeInterval().toMillis();
+        ScheduledExecutorService p = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("deletion-purge-"));
+        p.scheduleWithFixedDelay(this::purgeAll, every, every, TimeUnit.MILLISECONDS);
+        purger = p;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService p = purger;
+        purger = null;
+        if (p != null) p.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return purger != null;
+    }
+
+    private void purgeAll() {
+        for (String tenant : databases.representatives()) {
+            if (stopping()) return;
+            try {
+                TenantContext.runAs(tenant, () -> {
+                    for (Target t : TARGETS) purge(t);
+                });
+            } catch (RuntimeException ex) {
+                log.warn("deletion.purge failed database={} reason={}", databases.databaseOf(tenant), ex.toString());
+            }
+        }
+    }
+
+    private void purge(Target t) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int size = Math.max(1, props.getChunkSize());
+        long entities = 0;
+        long links = 0;
+        List<Long> ids;
+        while (!stopping() && !(ids = jdbc.queryForList("SELECT id FROM " + t.table() + " WHERE deleted = true ORDER BY id LIMIT :n",
+                Map.of("n", size), Long.class)).isEmpty()) {
+            for (Link l : t.links()) links += unlink(tx, l, ids, size);
+            if (stopping()) break;
+
+            List<Long> chunk = ids;
+            Integer n = tx.execute(s -> {
+                tableVersions.written(t.table());
+                if (t.table().equals("`groups`")) {
+                    // Deleted groups may still hang under each other; live ones never hang under them
+                    jdbc.update("UPDATE `groups` SET parent_id = NULL WHERE parent_id IN (:ids)", Map.of("ids", chunk));
+                }
+                return jdbc.update("DELETE FROM " + t.table() + " WHERE id IN (:ids) AND deleted = true", Map.of("ids", chunk));
+            });
+            entities += n == null ? 0 : n;
+            pause();
+        }
+        if (entities > 0) {
+            log.info("deletion.purge success database={} table={} entities={} links={}",
+                    databases.databaseOf(TenantContext.current()), t.table().replace("`", ""), entities, links);
+        }
+    }
+
+    private long unlink(TransactionTemplate tx, Link l, List<Long> ids, int size) {
+        String select = "SELECT " + l.column() + ", " + l.other() + " FROM " + l.table()
+                + " WHERE " + l.column() + " IN (:ids) ORDER BY " + l.column() + ", " + l.other() + " LIMIT :n";
+        String delete = "DELETE FROM " + l.table() + " WHERE " + l.column() + " = ? AND " + l.other() + " = ?";
+        long removed = 0;
+        while (!stopping()) {
+            List<Object[]> rows = new ArrayList<>(size);
+            jdbc.query(select, Map.of("ids", ids, "n", size), rs -> {
+                rows.add(new Object[]{rs.getLong(1), rs.getLong(2)});
+            });
+            if (rows.isEmpty()) return removed;
+            tx.executeWithoutResult(s -> {
+                tableVersions.written(l.table());
+                jdbc.getJdbcTemplate().batchUpdate(delete, rows);
+            });
+            removed += rows.size();
+            pause();
+        }
+        return removed;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(props.getPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Set by shutdown; a half-purged chunk is picked up again on the next start
+    private static boolean stopping() {
+        return Thread.currentThread().isInterrupted();
+    }
+}
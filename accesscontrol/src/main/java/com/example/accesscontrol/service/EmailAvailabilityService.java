@@ -0,0 +1,152 @@
+package com.example.accesscontrol.service;
+
+import com.example.accesscontrol.config.EmailFilterProperties;
+import com.example.accesscontrol.config.TenantContext;
+import com.example.accesscontrol.config.TenantDatabases;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells from memory whether an email might already be taken, so creating a user or changing
+ * an email only looks it up when the answer is yes. For almost every new email it is no.
+ * The unique key on users still decides: an email this node has not seen, taken on another
+ * node since the last rebuild, fails on write just as it would in a race with the lookup.
+ *
+ * <p>Keys are tenant and lowercased email. Soft-deleted users keep their email until the
+ * purger removes them, so only hard deletes and email changes release one; anything released
+ * elsewhere costs a lookup until the next rebuild.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailAvailabilityService {
+
+    private static final int REBUILD_PAGE = 10_000;
+
+    private final JdbcTemplate jdbc;
+    private final EmailFilterProperties props;
+    private final TenantDatabases databases;
+    private final MeterRegistry meterRegistry;
+
+    // Null until the first build finishes; until then every email is looked up
+    private volatile CountingBloomFilter filter;
+    private ScheduledExecutorService scheduler;
+
+    private Counter skipped;
+    private Counter checked;
+
+    // After startup, so users seeded by the runners are in the first build
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!props.isEnabled()) return;
+        skipped = meterRegistry.counter("users.email.prechecks", "result", "skipped");
+        checked = meterRegistry.counter("users.email.prechecks", "result", "checked");
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("email-filter-"));
+        long every = props.getRebuildInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                log.warn("users.email_filter.rebuild failed reason={}", ex.toString());
+            }
+        }, 0, every, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    /** False only when no user of the current tenant has the email, ignoring case. */
+    public boolean mightBeTaken(String email) {
+        CountingBloomFilter f = filter;
+        if (f == null) return true;
+        if (f.mightContain(key(TenantContext.current(), email))) {
+            checked.increment();
+            return true;
+        }
+        skipped.increment();
+        return false;
+    }
+
+    /** Call once the email is written; if the transaction rolls back it only costs a lookup. */
+    public void taken(String email) {
+        CountingBloomFilter f = filter;
+        if (f != null) f.add(key(TenantContext.current(), email));
+    }
+
+    /** Frees the email once the surrounding transaction commits. */
+    public void released(String email) {
+        String key = key(TenantContext.current(), email);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(key);
+            }
+        });
+    }
+
+    private void remove(String key) {
+        CountingBloomFilter f = filter;
+        if (f != null) f.remove(key);
+    }
+
+    // Emails taken or released while this runs go to the old filter only, see the class comment
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        List<String> representatives = databases.representatives();
+        long total = 0;
+        for (String tenant : representatives) {
+            Long n = TenantContext.callAs(tenant, () -> jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+            total += n == null ? 0 : n;
+        }
+        CountingBloomFilter next = new CountingBloomFilter(
+                (int) Math.min(Integer.MAX_VALUE, Math.max(props.getExpectedEmails(), total * 2)),
+                props.getFalsePositiveRate());
+        for (String tenant : representatives) {
+            TenantContext.runAs(tenant, () -> load(next));
+        }
+        filter = next;
+        log.info("users.email_filter.rebuild success emails={} tookMs={}", total, System.currentTimeMillis() - start);
+    }
+
+    // Keyset pages, so a large table is never held in memory at once
+    private void load(CountingBloomFilter into) {
+        long after = 0;
+        List<Row> page;
+        do {
+            page = jdbc.query("SELECT id, tenant_id, email FROM users WHERE id > ? ORDER BY id LIMIT ?",
+                    (rs, i) -> new Row(rs.getLong(1), key(rs.getString(2), rs.getString(3))), after, REBUILD_PAGE);
+            page.forEach(r -> into.add(r.key()));
+            if (!page.isEmpty()) after = page.get(page.size() - 1).id();
+        } while (page.size() == REBUILD_PAGE);
+    }
+
+    private record Row(long id, String key) {
+    }
+
+    private static String key(String tenant, String email) {
+        return tenant + ":" + email.strip().toLowerCase(Locale.ROOT);
+    }
+}
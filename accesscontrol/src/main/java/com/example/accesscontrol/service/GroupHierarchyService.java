@@ -0,0 +1,168 @@
+package com.example.accesscontrol.service;
+
+import com.example.accesscontrol.config.TenantContext;
+import com.example.accesscontrol.config.TenantDatabases;
+import com.example.accesscontrol.entity.HierarchyLock;
+import com.example.accesscontrol.repository.HierarchyLockRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Keeps group_closure in step with the parent links of the group tree, so everything above
+ * or below a group is one indexed lookup. Moving a group detaches its subtree from its old
+ * ancestors and attaches it under the new ones; rows outside those paths are not touched.
+ * A move reads the closure it changes, so it runs under the groups' hierarchy lock.
+ *
+ * <p>The closure is rebuilt from the parent links at startup only when it is empty and some
+ * group has a parent, which happens once after upgrading.
+ */
+@Slf4j
+@Service
+@Timed("accesscontrol.service")
+@RequiredArgsConstructor
+public class GroupHierarchyService {
+
+    private final HierarchyLockRepository lockRepository;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final PlatformTransactionManager transactionManager;
+    private final TenantDatabases databases;
+
+    @PostConstruct
+    void init() {
+        // Once per database, covering every tenant on it
+        databases.representatives().forEach(tenant -> TenantContext.runAs(tenant, this::initDatabase));
+    }
+
+    private void initDatabase() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            tx.executeWithoutResult(s -> {
+                if (!lockRepository.existsById(HierarchyLock.GROUPS)) {
+                    lockRepository.saveAndFlush(HierarchyLock.builder().id(HierarchyLock.GROUPS).build());
+                }
+            });
+        } catch (DataIntegrityViolationException race) {
+            // Another node created it first
+        }
+        tx.executeWithoutResult(s -> {
+            if (count("SELECT COUNT(*) FROM `groups` WHERE parent_id IS NOT NULL") == 0
+                    || count("SELECT COUNT(*) FROM group_closure") > 0) return;
+            lock();
+            if (count("SELECT COUNT(*) FROM group_closure") == 0) rebuild();
+        });
+    }
+
+    /** Serializes group tree changes until the surrounding transaction ends. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lock() {
+        HierarchyLock l = lockRepository.findForUpdate(HierarchyLock.GROUPS)
+                .orElseThrow(() -> new IllegalStateException("hierarchy_locks row for groups is missing"));
+        l.setRevision(l.getRevision() + 1);
+    }
+
+    /** Whether {@code groupId} is {@code ancestorId} or somewhere below it. */
+    @Transactional(readOnly = true)
+    public boolean contains(long ancestorId, long groupId) {
+        if (ancestorId == groupId) return true;
+        return count("SELECT COUNT(*) FROM group_closure WHERE ancestor_id = :a AND descendant_id = :d",
+                Map.of("a", ancestorId, "d", groupId)) > 0;
+    }
+
+    /** The given groups plus every group above them, sorted. */
+    @Transactional(readOnly = true)
+    public List<Long> withAncestors(Collection<Long> groupIds) {
+        if (groupIds == null || groupIds.isEmpty()) return List.of();
+        TreeSet<Long> out = new TreeSet<>(groupIds);
+        out.addAll(jdbc.queryForList("SELECT ancestor_id FROM group_closure WHERE descendant_id IN (:ids)",
+                Map.of("ids", groupIds), Long.class));
+        return List.copyOf(out);
+    }
+
+    /**
+     * Re-hangs the subtree under {@code parentId}, or makes it a root when null. Hold
+     * {@link #lock()} and rule out a cycle with {@link #contains} first.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void moved(long groupId, Long parentId) {
+        Map<Long, Integer> subtree = depths("SELECT descendant_id, depth FROM group_closure WHERE ancestor_id = :id", groupId);
+        subtree.put(groupId, 0);
+        List<Long> oldAncestors = jdbc.queryForList("SELECT ancestor_id FROM group_closure WHERE descendant_id = :id",
+                Map.of("id", groupId), Long.class);
+        if (!oldAncestors.isEmpty()) {
+            jdbc.update("DELETE FROM group_closure WHERE ancestor_id IN (:a) AND descendant_id IN (:d)",
+                    Map.of("a", oldAncestors, "d", subtree.keySet()));
+        }
+        if (parentId == null) return;
+
+        Map<Long, Integer> above = depths("SELECT ancestor_id, depth FROM group_closure WHERE descendant_id = :id", parentId);
+        above.put(parentId, 0);
+        List<Map<String, Object>> rows = new ArrayList<>(above.size() * subtree.size());
+        for (var a : above.entrySet()) {
+            for (var d : subtree.entrySet()) {
+                rows.add(Map.of("a", a.getKey(), "d", d.getKey(), "depth", a.getValue() + 1 + d.getValue()));
+            }
+        }
+        batch(rows);
+    }
+
+    /** Forgets groups about to be deleted; none of them may still have children outside the set. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removed(Collection<Long> groupIds) {
+        if (groupIds.isEmpty()) return;
+        jdbc.update("DELETE FROM group_closure WHERE ancestor_id IN (:ids) OR descendant_id IN (:ids)",
+                Map.of("ids", groupIds));
+    }
+
+    private void rebuild() {
+        Map<Long, Long> parents = new HashMap<>();
+        jdbc.query("SELECT id, parent_id FROM `groups` WHERE parent_id IS NOT NULL AND deleted = false", rs -> {
+            parents.put(rs.getLong(1), rs.getLong(2));
+        });
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Long group : parents.keySet()) {
+            int depth = 1;
+            for (Long a = parents.get(group); a != null; a = parents.get(a), depth++) {
+                if (depth > parents.size()) throw new IllegalStateException("Group parents form a cycle through group " + group);
+                rows.add(Map.of("a", a, "d", group, "depth", depth));
+            }
+        }
+        batch(rows);
+        log.info("groups.closure.rebuild success links={} rows={}", parents.size(), rows.size());
+    }
+
+    private Map<Long, Integer> depths(String sql, long id) {
+        Map<Long, Integer> out = new HashMap<>();
+        jdbc.query(sql, Map.of("id", id), rs -> {
+            out.put(rs.getLong(1), rs.getInt(2));
+        });
+        return out;
+    }
+
+    private long count(String sql) {
+        return count(sql, Map.of());
+    }
+
+    private long count(String sql, Map<String, ?> params) {
+        Long n = jdbc.queryForObject(sql, params, Long.class);
+        return n == null ? 0 : n;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void batch(List<Map<String, Object>> rows) {
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO group_closure (ancestor_id, descendant_id, depth) VALUES (:a, :d, :depth)",
+                    rows.toArray(new Map[0]));
+        }
+    }
+}
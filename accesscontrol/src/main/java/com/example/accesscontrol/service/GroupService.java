@@ -1,16 +1,21 @@
 package com.example.accesscontrol.service;
 
+import com.example.accesscontrol.config.DeletionProperties;
+import com.example.accesscontrol.config.RetryOnLockFailure;
 import com.example.accesscontrol.config.logs;
 import com.example.accesscontrol.dto.common.MessageResponse;
 import com.example.accesscontrol.dto.common.PageResponse;
 import com.example.accesscontrol.dto.group.*;
 import com.example.accesscontrol.dto.role.RoleResponse;
 import com.example.accesscontrol.dto.user.getUsers.UserSummaryResponse;
+import com.example.accesscontrol.entity.ChangeLogEntry;
 import com.example.accesscontrol.entity.Group;
 import com.example.accesscontrol.entity.Role;
 import com.example.accesscontrol.entity.User;
 import com.example.accesscontrol.exception.ResourceNotFoundException;
 import com.example.accesscontrol.repository.GroupRepository;
+import com.example.accesscontrol.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -23,10 +28,15 @@ import java.util.*;
 
 @Slf4j
 @Service
+@Timed("accesscontrol.service")
 @RequiredArgsConstructor
 public class GroupService {
 
     private final GroupRepository groupRepository;
+    private final UserRepository userRepository;
+    private final GroupHierarchyService hierarchy;
+    private final ChangeLogService changeLog;
+    private final DeletionProperties deletion;
     private final logs logs;
 
     @Transactional
@@ -75,6 +85,8 @@ public class GroupService {
                     "Some group names already exist: " + nowExisting);
         }
 
+        changeLog.record(ChangeLogEntry.EntityType.GROUP, saved.stream().map(Group::getId).toList(), "created");
+
         var itemsResp = saved.stream()
                 .map(g -> GroupResponse.builder().id(g.getId()).name(g.getName()).build())
                 .toList();
@@ -140,6 +152,7 @@ public class GroupService {
         return GroupDetailsResponse.builder()
                 .id(group.getId())
                 .name(group.getName())
+                .parentId(group.getParent() == null ? null : group.getParent().getId())
                 .users(users)
                 .roles(roles)
                 .build();
@@ -178,6 +191,7 @@ public class GroupService {
         } catch (DataIntegrityViolationException e) {
             throw new com.example.accesscontrol.exception.DuplicateResourceException("Group name already exists");
         }
+        changeLog.record(ChangeLogEntry.EntityType.GROUP, List.of(groupId), "name");
 
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String actor = auth == null ? "unknown" : auth.getName();
@@ -192,6 +206,72 @@ public class GroupService {
                 .build();
     }
 
+    /** Ids that exist in the current tenant; others are treated as missing. */
+    @Transactional(readOnly = true)
+    public List<Long> getExistingGroupIds(Collection<Long> ids) {
+        return groupRepository.findAllById(ids).stream().map(Group::getId).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<UserSummaryResponse> getGroupMembers(Long groupId, int page, int size) {
+        if (!groupRepository.existsById(groupId)) throw new ResourceNotFoundException("Group not found");
+        final int pageSafe = Math.max(0, page);
+        final int sizeSafe = Math.min(Math.max(1, size), 100);
+        final Pageable pageable = PageRequest.of(pageSafe, sizeSafe, Sort.by("email", "id"));
+
+        Page<User> pg = userRepository.findInGroupTree(groupId, pageable);
+        var items = pg.getContent().stream()
+                .map(u -> UserSummaryResponse.builder()
+                        .id(u.getId())
+                        .email(u.getEmail())
+                        .enabled(u.isEnabled())
+                        .build())
+                .toList();
+
+        log.info("groups.members success groupId={} total={}", groupId, pg.getTotalElements());
+        return PageResponse.<UserSummaryResponse>builder()
+                .items(items)
+                .page(pageSafe)
+                .size(sizeSafe)
+                .total(pg.getTotalElements())
+                .build();
+    }
+
+    @RetryOnLockFailure
+    @Transactional
+    public MessageResponse updateGroupParent(Long groupId, UpdateGroupParentRequest request) {
+        Long parentId = request == null ? null : request.getParentId();
+        if (parentId != null && parentId <= 0) throw new IllegalArgumentException("Invalid parentId");
+
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group not found"));
+        Long oldParentId = group.getParent() == null ? null : group.getParent().getId();
+        if (Objects.equals(oldParentId, parentId)) {
+            log.info("groups.update_parent no_change groupId={} parentId={}", groupId, parentId);
+            return MessageResponse.builder().message("Group parent updated successfully").build();
+        }
+        Group parent = parentId == null ? null : groupRepository.findById(parentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Parent group not found"));
+
+        hierarchy.lock();
+        if (parentId != null && hierarchy.contains(groupId, parentId)) {
+            throw new IllegalArgumentException("Group " + groupId + " cannot move under group " + parentId
+                    + ": that group is inside it");
+        }
+        hierarchy.moved(groupId, parentId);
+        group.setParent(parent);
+        groupRepository.save(group);
+        changeLog.record(ChangeLogEntry.EntityType.GROUP, List.of(groupId), "parent");
+
+        var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+        String actor = auth == null ? "unknown" : auth.getName();
+        log.info("groups.update_parent success actor={} groupId={} old={} new={}",
+                logs.mask(actor), groupId, oldParentId, parentId);
+
+        return MessageResponse.builder().message("Group parent updated successfully").build();
+    }
+
+    @RetryOnLockFailure
     @Transactional
     public MessageResponse deleteGroups(List<Long> groupIds) {
         if (groupIds == null || groupIds.isEmpty())
@@ -207,21 +287,36 @@ public class GroupService {
             var missing = ids.stream().filter(id -> !found.contains(id)).toList();
             throw new com.example.accesscontrol.exception.ResourceNotFoundException("Some groups not found: " + missing);
         }
+        var children = groupRepository.findChildIdsOutside(ids);
+        if (!children.isEmpty()) {
+            throw new IllegalArgumentException("Move or delete the child groups first: " + children);
+        }
 
-        try {
-            for (Group g : existing) {
-                for (User u : new ArrayList<>(g.getUsers())) {
-                    u.getGroups().remove(g);
-                }
-                for (Role r : new ArrayList<>(g.getRoles())) {
-                    r.getGroups().remove(g);
+        hierarchy.lock();
+        hierarchy.removed(ids);
+        if (deletion.isSoft()) {
+            // Parent links, members and roles are left to DeletionPurgeService
+            existing.forEach(g -> g.setDeleted(true));
+        } else {
+            try {
+                for (Group g : existing) {
+                    g.setParent(null);
+                    for (User u : new ArrayList<>(g.getUsers())) {
+                        u.getGroups().remove(g);
+                    }
+                    for (Role r : new ArrayList<>(g.getRoles())) {
+                        r.getGroups().remove(g);
+                    }
                 }
+                // Parent links inside the set go first, or the batch delete trips over its own rows
+                groupRepository.flush();
+                groupRepository.deleteAllInBatch(existing);
+            } catch (DataIntegrityViolationException ex) {
+                throw new IllegalArgumentException("Cannot delete groups due to existing references: " +
+                        (ex.getMostSpecificCause() == null ? ex.getMessage() : ex.getMostSpecificCause().getMessage()));
             }
-            groupRepository.deleteAllInBatch(existing);
-        } catch (DataIntegrityViolationException ex) {
-            throw new IllegalArgumentException("Cannot delete groups due to existing references: " +
-                    (ex.getMostSpecificCause() == null ? ex.getMessage() : ex.getMostSpecificCause().getMessage()));
         }
+        changeLog.record(ChangeLogEntry.EntityType.GROUP, ids, "deleted");
 
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String actor = auth == null ? "unknown" : auth.getName();
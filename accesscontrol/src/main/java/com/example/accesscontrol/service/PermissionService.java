@@ -1,14 +1,17 @@
 package com.example.accesscontrol.service;
 
+import com.example.accesscontrol.config.DeletionProperties;
 import com.example.accesscontrol.config.logs;
 import com.example.accesscontrol.dto.common.MessageResponse;
 import com.example.accesscontrol.dto.common.PageResponse;
 import com.example.accesscontrol.dto.permission.*;
+import com.example.accesscontrol.entity.ChangeLogEntry;
 import com.example.accesscontrol.entity.Permission;
 import com.example.accesscontrol.entity.Role;
 import com.example.accesscontrol.exception.DuplicateResourceException;
 import com.example.accesscontrol.exception.ResourceNotFoundException;
 import com.example.accesscontrol.repository.PermissionRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -20,10 +23,13 @@ import java.util.*;
 
 @Slf4j
 @Service
+@Timed("accesscontrol.service")
 @RequiredArgsConstructor
 public class PermissionService {
 
     private final PermissionRepository permissionRepository;
+    private final ChangeLogService changeLog;
+    private final DeletionProperties deletion;
     private final logs logs;
 
 
@@ -70,6 +76,8 @@ public class PermissionService {
             throw new DuplicateResourceException("Permissions already exist: " + nowExisting);
         }
 
+        changeLog.record(ChangeLogEntry.EntityType.PERMISSION, saved.stream().map(Permission::getId).toList(), "created");
+
         List<PermissionResponse> items = saved.stream()
                 .sorted(java.util.Comparator.comparing(Permission::getName, java.text.Collator.getInstance())
                         .thenComparing(Permission::getId))
@@ -150,6 +158,7 @@ public class PermissionService {
         } catch (DataIntegrityViolationException e) {
             throw new DuplicateResourceException("Permission name already exists");
         }
+        changeLog.record(ChangeLogEntry.EntityType.PERMISSION, List.of(permissionId), "name");
 
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -182,17 +191,22 @@ public class PermissionService {
             throw new ResourceNotFoundException("Some permissions not found: " + missing);
         }
 
-        try {
-            for (Permission perm : existing) {
-                for (Role r : new ArrayList<>(perm.getRoles())) {
-                    r.getPermissions().remove(perm);
+        if (deletion.isSoft()) {
+            existing.forEach(p -> p.setDeleted(true));
+        } else {
+            try {
+                for (Permission perm : existing) {
+                    for (Role r : new ArrayList<>(perm.getRoles())) {
+                        r.getPermissions().remove(perm);
+                    }
                 }
+                permissionRepository.deleteAllInBatch(existing);
+            } catch (DataIntegrityViolationException ex) {
+                throw new IllegalArgumentException("Cannot delete permissions due to existing references: " +
+                        (ex.getMostSpecificCause() == null ? ex.getMessage() : ex.getMostSpecificCause().getMessage()));
             }
-            permissionRepository.deleteAllInBatch(existing);
-        } catch (DataIntegrityViolationException ex) {
-            throw new IllegalArgumentException("Cannot delete permissions due to existing references: " +
-                    (ex.getMostSpecificCause() == null ? ex.getMessage() : ex.getMostSpecificCause().getMessage()));
         }
+        changeLog.record(ChangeLogEntry.EntityType.PERMISSION, ids, "deleted");
 
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
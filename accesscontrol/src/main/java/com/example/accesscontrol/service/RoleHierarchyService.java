@@ -0,0 +1,188 @@
+package com.example.accesscontrol.service;
+
+import com.example.accesscontrol.config.TenantContext;
+import com.example.accesscontrol.config.TenantDatabases;
+import com.example.accesscontrol.entity.HierarchyLock;
+import com.example.accesscontrol.entity.Role;
+import com.example.accesscontrol.repository.HierarchyLockRepository;
+import com.example.accesscontrol.repository.RoleRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Keeps the role_closure table in step with role_inheritance, so the roles a role brings
+ * along, at any depth, are one indexed lookup. Adding the edge a to b adds, for every role
+ * that reaches a and every role b reaches, the number of paths through the new edge;
+ * removing it subtracts the same and drops rows that reach zero. Both read the closure they
+ * change, so every change runs under the hierarchy lock.
+ *
+ * <p>The closure is rebuilt from the edges at startup only when it is empty and edges
+ * exist, which happens once after upgrading.
+ */
+@Slf4j
+@Service
+@Timed("accesscontrol.service")
+@RequiredArgsConstructor
+public class RoleHierarchyService {
+
+    private final RoleRepository roleRepository;
+    private final HierarchyLockRepository lockRepository;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final PlatformTransactionManager transactionManager;
+    private final TenantDatabases databases;
+
+    @PostConstruct
+    void init() {
+        // Each database has its own lock row and closure
+        databases.representatives().forEach(tenant -> TenantContext.runAs(tenant, this::initDatabase));
+    }
+
+    private void initDatabase() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            tx.executeWithoutResult(s -> {
+                if (!lockRepository.existsById(HierarchyLock.ROLES)) {
+                    lockRepository.saveAndFlush(HierarchyLock.builder().id(HierarchyLock.ROLES).build());
+                }
+            });
+        } catch (DataIntegrityViolationException race) {
+            // Another node created it first
+        }
+        tx.executeWithoutResult(s -> {
+            long edges = count("SELECT COUNT(*) FROM role_inheritance");
+            if (edges == 0 || count("SELECT COUNT(*) FROM role_closure") > 0) return;
+            lock();
+            if (count("SELECT COUNT(*) FROM role_closure") == 0) rebuild();
+        });
+    }
+
+    /** Serializes hierarchy changes until the surrounding transaction ends. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lock() {
+        HierarchyLock l = lockRepository.findForUpdate(HierarchyLock.ROLES)
+                .orElseThrow(() -> new IllegalStateException("hierarchy_locks row for roles is missing"));
+        l.setRevision(l.getRevision() + 1);
+    }
+
+    /** Whether holding {@code roleId} grants {@code otherId}, itself included. */
+    @Transactional(readOnly = true)
+    public boolean grants(long roleId, long otherId) {
+        if (roleId == otherId) return true;
+        return count("SELECT COUNT(*) FROM role_closure WHERE ancestor_id = :a AND descendant_id = :d",
+                Map.of("a", roleId, "d", otherId)) > 0;
+    }
+
+    /** Roles inherited by any of {@code roleIds}, at any depth; may include some of the given roles. */
+    @Transactional(readOnly = true)
+    public List<Role> inheritedRoles(Collection<Long> roleIds) {
+        if (roleIds == null || roleIds.isEmpty()) return List.of();
+        return roleRepository.findInheritedByRoleIdIn(roleIds);
+    }
+
+    /** Call after adding the edge, holding {@link #lock()}, once {@link #grants} has ruled out a cycle. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void edgeAdded(long roleId, long inheritedId) {
+        apply(roleId, inheritedId, 1);
+    }
+
+    /** Call after removing the edge, holding {@link #lock()}. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void edgeRemoved(long roleId, long inheritedId) {
+        apply(roleId, inheritedId, -1);
+        jdbc.update("DELETE FROM role_closure WHERE paths <= 0", Map.of());
+    }
+
+    private void apply(long a, long b, long sign) {
+        // Paths into a and out of b; the hierarchy has no cycles, so neither uses the edge itself
+        Map<Long, Long> up = paths("SELECT ancestor_id, paths FROM role_closure WHERE descendant_id = :id", a);
+        up.put(a, 1L);
+        Map<Long, Long> down = paths("SELECT descendant_id, paths FROM role_closure WHERE ancestor_id = :id", b);
+        down.put(b, 1L);
+
+        Set<List<Long>> existing = new HashSet<>();
+        jdbc.query("SELECT ancestor_id, descendant_id FROM role_closure WHERE ancestor_id IN (:up) AND descendant_id IN (:down)",
+                Map.of("up", up.keySet(), "down", down.keySet()),
+                rs -> {
+                    existing.add(List.of(rs.getLong(1), rs.getLong(2)));
+                });
+
+        List<Map<String, Object>> updates = new ArrayList<>();
+        List<Map<String, Object>> inserts = new ArrayList<>();
+        for (var x : up.entrySet()) {
+            for (var y : down.entrySet()) {
+                Map<String, Object> row = Map.of("a", x.getKey(), "d", y.getKey(),
+                        "n", sign * Math.multiplyExact(x.getValue(), y.getValue()));
+                (existing.contains(List.of(x.getKey(), y.getKey())) ? updates : inserts).add(row);
+            }
+        }
+        if (sign < 0 && !inserts.isEmpty()) {
+            throw new IllegalStateException("role_closure is missing paths through " + a + " -> " + b);
+        }
+        batch("UPDATE role_closure SET paths = paths + :n WHERE ancestor_id = :a AND descendant_id = :d", updates);
+        batch("INSERT INTO role_closure (ancestor_id, descendant_id, paths) VALUES (:a, :d, :n)", inserts);
+    }
+
+    private void rebuild() {
+        Map<Long, List<Long>> edges = new HashMap<>();
+        jdbc.query("SELECT role_id, inherited_role_id FROM role_inheritance", rs -> {
+            edges.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>()).add(rs.getLong(2));
+        });
+        Map<Long, Map<Long, Long>> memo = new HashMap<>();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Long role : edges.keySet()) {
+            reach(role, edges, memo, new HashSet<>()).forEach((d, n) -> rows.add(Map.of("a", role, "d", d, "n", n)));
+        }
+        batch("INSERT INTO role_closure (ancestor_id, descendant_id, paths) VALUES (:a, :d, :n)", rows);
+        log.info("roles.closure.rebuild success edges={} rows={}",
+                edges.values().stream().mapToInt(List::size).sum(), rows.size());
+    }
+
+    // Path counts from role to everything below it
+    private static Map<Long, Long> reach(Long role, Map<Long, List<Long>> edges,
+                                         Map<Long, Map<Long, Long>> memo, Set<Long> onPath) {
+        Map<Long, Long> done = memo.get(role);
+        if (done != null) return done;
+        if (!onPath.add(role)) throw new IllegalStateException("role_inheritance has a cycle through role " + role);
+        Map<Long, Long> out = new HashMap<>();
+        for (Long child : edges.getOrDefault(role, List.of())) {
+            out.merge(child, 1L, Math::addExact);
+            reach(child, edges, memo, onPath).forEach((d, n) -> out.merge(d, n, Math::addExact));
+        }
+        onPath.remove(role);
+        memo.put(role, out);
+        return out;
+    }
+
+    private Map<Long, Long> paths(String sql, long id) {
+        Map<Long, Long> out = new HashMap<>();
+        jdbc.query(sql, Map.of("id", id), rs -> {
+            out.put(rs.getLong(1), rs.getLong(2));
+        });
+        return out;
+    }
+
+    private long count(String sql) {
+        return count(sql, Map.of());
+    }
+
+    private long count(String sql, Map<String, ?> params) {
+        Long n = jdbc.queryForObject(sql, params, Long.class);
+        return n == null ? 0 : n;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void batch(String sql, List<Map<String, Object>> rows) {
+        if (!rows.isEmpty()) jdbc.batchUpdate(sql, rows.toArray(new Map[0]));
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.accesscontrol.service;
 
+import com.example.accesscontrol.config.DeletionProperties;
+import com.example.accesscontrol.config.RetryOnLockFailure;
+import com.example.accesscontrol.config.TenantContext;
 import com.example.accesscontrol.config.logs;
 import com.example.accesscontrol.dto.group.AssignRolesToGroupsRequest;
 import com.example.accesscontrol.dto.permission.PermissionResponse;
 import com.example.accesscontrol.dto.role.*;
+import com.example.accesscontrol.entity.ChangeLogEntry;
 import com.example.accesscontrol.entity.Group;
 import com.example.accesscontrol.entity.Permission;
 import com.example.accesscontrol.entity.Role;
@@ -11,6 +15,7 @@ import com.example.accesscontrol.entity.User;
 import com.example.accesscontrol.exception.DuplicateResourceException;
 import com.example.accesscontrol.exception.ResourceNotFoundException;
 import com.example.accesscontrol.repository.RoleRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
@@ -22,17 +27,25 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.text.Collator;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed("accesscontrol.service")
 @RequiredArgsConstructor
 public class RoleService {
 
     private final RoleRepository roleRepository;
     private final PermissionService permissionService;
+    private final GroupService groupService;
+    private final ChangeLogService changeLog;
+    private final RoleHierarchyService hierarchy;
+    private final DeletionProperties deletion;
     private final logs logs;
 
+    // Role ids for the hot registration path, keyed by tenant and name; evicted on rename/delete
+    private final Map<String, Long> roleIdsByName = new ConcurrentHashMap<>();
 
     @PersistenceContext
     private EntityManager em;
@@ -99,6 +112,7 @@ public class RoleService {
             }
         }
         roleRepository.saveAll(savedRoles);
+        changeLog.record(ChangeLogEntry.EntityType.ROLE, savedRoles.stream().map(Role::getId).toList(), "created");
 
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -145,10 +159,16 @@ public class RoleService {
                         .thenComparing(PermissionResponse::getId))
                 .toList();
 
+        var inherits = role.getInherits().stream()
+                .map(r -> RoleResponse.builder().id(r.getId()).name(r.getName()).build())
+                .sorted(Comparator.comparing(RoleResponse::getId))
+                .toList();
+
         return RoleDetailsResponse.builder()
                 .id(role.getId())
                 .name(role.getName())
                 .permissions(permDtos)
+                .inherits(inherits)
                 .build();
     }
 
@@ -178,6 +198,8 @@ public class RoleService {
         } catch (DataIntegrityViolationException e) {
             throw new DuplicateResourceException("Role name already exists");
         }
+        evictRoleReference(old);
+        changeLog.record(ChangeLogEntry.EntityType.ROLE, List.of(roleId), "name");
 
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -187,11 +209,12 @@ public class RoleService {
         return UpdateRoleResponse.builder().message("Role name updated successfully").build();
     }
 
+    @RetryOnLockFailure
     @Transactional
     public String assignPermissionsToRoles(List<AssignPermissionsToRolesRequest> requests) {
         if (requests == null || requests.isEmpty()) throw new IllegalArgumentException("Requests cannot be empty");
 
-        Map<Long, Set<Long>> wanted = new LinkedHashMap<>();
+        Map<Long, Set<Long>> wanted = new TreeMap<>();
         for (var r : requests) {
             if (r == null || r.getRoleId() == null || r.getRoleId() <= 0)
                 throw new IllegalArgumentException("Invalid roleId in request");
@@ -201,7 +224,7 @@ public class RoleService {
             var perms = r.getPermissionIds().stream().filter(Objects::nonNull).filter(id -> id > 0)
                     .collect(Collectors.toCollection(LinkedHashSet::new));
             if (perms.isEmpty()) throw new IllegalArgumentException("permissionIds must not be empty");
-            wanted.computeIfAbsent(r.getRoleId(), k -> new LinkedHashSet<>()).addAll(perms);
+            wanted.computeIfAbsent(r.getRoleId(), k -> new TreeSet<>()).addAll(perms);
         }
 
         var roleIds = new ArrayList<>(wanted.keySet());
@@ -233,6 +256,7 @@ public class RoleService {
             }
         }
         roleRepository.saveAll(roles);
+        if (assigned > 0) changeLog.record(ChangeLogEntry.EntityType.ROLE, wanted.keySet(), "permissions");
 
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -243,11 +267,12 @@ public class RoleService {
         return "Permissions assigned successfully. Total assignments: " + assigned;
     }
 
+    @RetryOnLockFailure
     @Transactional
     public String deassignPermissionsFromRoles(List<AssignPermissionsToRolesRequest> items) {
         if (items == null || items.isEmpty()) throw new IllegalArgumentException("Invalid or empty input");
 
-        Map<Long, Set<Long>> wanted = new LinkedHashMap<>();
+        Map<Long, Set<Long>> wanted = new TreeMap<>();
         for (var it : items) {
             if (it == null || it.getRoleId() == null || it.getRoleId() <= 0)
                 throw new IllegalArgumentException("Invalid roleId in request");
@@ -257,7 +282,7 @@ public class RoleService {
             var perms = it.getPermissionIds().stream().filter(Objects::nonNull).filter(id -> id > 0)
                     .collect(Collectors.toCollection(LinkedHashSet::new));
             if (perms.isEmpty()) throw new IllegalArgumentException("permissionIds must not be empty");
-            wanted.computeIfAbsent(it.getRoleId(), k -> new LinkedHashSet<>()).addAll(perms);
+            wanted.computeIfAbsent(it.getRoleId(), k -> new TreeSet<>()).addAll(perms);
         }
 
         var permissionIds = wanted.values().stream().flatMap(Set::stream).distinct().toList();
@@ -287,6 +312,7 @@ public class RoleService {
             role.getPermissions().removeAll(toRemove);
         }
         roleRepository.saveAll(roles);
+        if (removed > 0) changeLog.record(ChangeLogEntry.EntityType.ROLE, wanted.keySet(), "permissions");
 
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -297,11 +323,12 @@ public class RoleService {
         return removed > 0 ? "Permissions removed successfully" : "No permissions were removed";
     }
 
+    @RetryOnLockFailure
     @Transactional
     public String assignRolesToGroups(List<AssignRolesToGroupsRequest> items) {
         if (items == null || items.isEmpty()) throw new IllegalArgumentException("Invalid or empty input");
 
-        Map<Long, Set<Long>> wanted = new LinkedHashMap<>();
+        Map<Long, Set<Long>> wanted = new TreeMap<>();
         for (var it : items) {
             if (it == null || it.getGroupId() == null || it.getGroupId() <= 0)
                 throw new IllegalArgumentException("Invalid groupId in request");
@@ -310,11 +337,17 @@ public class RoleService {
             var norm = it.getRoleIds().stream().filter(Objects::nonNull).filter(id -> id > 0)
                     .collect(Collectors.toCollection(LinkedHashSet::new));
             if (norm.isEmpty()) throw new IllegalArgumentException("roleIds must not be empty");
-            wanted.computeIfAbsent(it.getGroupId(), k -> new LinkedHashSet<>()).addAll(norm);
+            wanted.computeIfAbsent(it.getGroupId(), k -> new TreeSet<>()).addAll(norm);
         }
 
-        var roleIds = wanted.values().stream().flatMap(Set::stream).distinct().toList();
-        var roles = getByIdsOrThrow(roleIds);
+        var roleIds = wanted.values().stream().flatMap(Set::stream).distinct().sorted().toList();
+        var roles = getByIdsOrThrow(roleIds).stream().sorted(Comparator.comparing(Role::getId)).toList();
+        var existingGroupIds = groupService.getExistingGroupIds(wanted.keySet());
+        if (existingGroupIds.size() != wanted.size()) {
+            var missing = new TreeSet<>(wanted.keySet());
+            existingGroupIds.forEach(missing::remove);
+            throw new ResourceNotFoundException("Some groups not found: " + missing);
+        }
 
         int inserted = 0;
         for (var e : wanted.entrySet()) {
@@ -330,6 +363,7 @@ public class RoleService {
             }
         }
         roleRepository.saveAll(roles);
+        if (inserted > 0) changeLog.record(ChangeLogEntry.EntityType.GROUP, wanted.keySet(), "roles");
 
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -340,11 +374,12 @@ public class RoleService {
         return "Roles assigned to groups successfully. Inserted: " + inserted;
     }
 
+    @RetryOnLockFailure
     @Transactional
     public String deassignRolesFromGroups(List<AssignRolesToGroupsRequest> items) {
         if (items == null || items.isEmpty()) throw new IllegalArgumentException("Invalid or empty input");
 
-        Map<Long, Set<Long>> wanted = new LinkedHashMap<>();
+        Map<Long, Set<Long>> wanted = new TreeMap<>();
         for (var it : items) {
             if (it == null || it.getGroupId() == null || it.getGroupId() <= 0)
                 throw new IllegalArgumentException("Invalid groupId in request");
@@ -353,10 +388,11 @@ public class RoleService {
             var norm = it.getRoleIds().stream().filter(Objects::nonNull).filter(id -> id > 0)
                     .collect(Collectors.toCollection(LinkedHashSet::new));
             if (norm.isEmpty()) throw new IllegalArgumentException("roleIds must not be empty");
-            wanted.computeIfAbsent(it.getGroupId(), k -> new LinkedHashSet<>()).addAll(norm);
+            wanted.computeIfAbsent(it.getGroupId(), k -> new TreeSet<>()).addAll(norm);
         }
 
-        var roles = getByIdsOrThrow(wanted.values().stream().flatMap(Set::stream).distinct().toList());
+        var roles = getByIdsOrThrow(wanted.values().stream().flatMap(Set::stream).distinct().sorted().toList())
+                .stream().sorted(Comparator.comparing(Role::getId)).toList();
 
         int removed = 0;
         for (var e : wanted.entrySet()) {
@@ -372,6 +408,7 @@ public class RoleService {
             }
         }
         roleRepository.saveAll(roles);
+        if (removed > 0) changeLog.record(ChangeLogEntry.EntityType.GROUP, wanted.keySet(), "roles");
 
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -382,10 +419,106 @@ public class RoleService {
         return (removed > 0) ? "Roles deassigned from groups successfully" : "No roles were deassigned from groups";
     }
 
+    @RetryOnLockFailure
+    @Transactional
+    public String assignInheritedRoles(List<AssignInheritedRolesRequest> items) {
+        Map<Long, Set<Long>> wanted = inheritanceRequest(items);
+        Map<Long, Role> byId = rolesInvolved(wanted);
+
+        hierarchy.lock();
+        int inserted = 0;
+        for (var e : wanted.entrySet()) {
+            Role role = byId.get(e.getKey());
+            var current = role.getInherits().stream().map(Role::getId).collect(Collectors.toSet());
+            for (Long inheritedId : e.getValue()) {
+                if (current.contains(inheritedId)) continue;
+                // The closure is already up to date with the edges added so far in this loop
+                if (hierarchy.grants(inheritedId, role.getId())) {
+                    throw new IllegalArgumentException("Role " + role.getId() + " cannot inherit role "
+                            + inheritedId + ": that role already includes it");
+                }
+                role.getInherits().add(byId.get(inheritedId));
+                hierarchy.edgeAdded(role.getId(), inheritedId);
+                inserted++;
+            }
+        }
+        roleRepository.saveAll(byId.values());
+        if (inserted > 0) changeLog.record(ChangeLogEntry.EntityType.ROLE, wanted.keySet(), "inheritance");
+
+        var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+        String actor = (auth == null) ? "unknown" : auth.getName();
+        int pairCount = wanted.values().stream().mapToInt(Set::size).sum();
+        log.info("roles.inheritance.assign success actor={} roles={} pairs_requested={} inserted={}",
+                logs.mask(actor), wanted.size(), pairCount, inserted);
+
+        return "Inherited roles assigned successfully. Inserted: " + inserted;
+    }
+
+    @RetryOnLockFailure
+    @Transactional
+    public String deassignInheritedRoles(List<AssignInheritedRolesRequest> items) {
+        Map<Long, Set<Long>> wanted = inheritanceRequest(items);
+        Map<Long, Role> byId = rolesInvolved(wanted);
+
+        hierarchy.lock();
+        int removed = 0;
+        for (var e : wanted.entrySet()) {
+            Role role = byId.get(e.getKey());
+            for (Long inheritedId : e.getValue()) {
+                if (role.getInherits().removeIf(r -> r.getId().equals(inheritedId))) {
+                    hierarchy.edgeRemoved(role.getId(), inheritedId);
+                    removed++;
+                }
+            }
+        }
+        roleRepository.saveAll(byId.values());
+        if (removed > 0) changeLog.record(ChangeLogEntry.EntityType.ROLE, wanted.keySet(), "inheritance");
+
+        var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+        String actor = (auth == null) ? "unknown" : auth.getName();
+        int pairCount = wanted.values().stream().mapToInt(Set::size).sum();
+        log.info("roles.inheritance.deassign success actor={} roles={} pairs_requested={} removed={}",
+                logs.mask(actor), wanted.size(), pairCount, removed);
+
+        return removed > 0 ? "Inherited roles removed successfully" : "No inherited roles were removed";
+    }
+
+    private static Map<Long, Set<Long>> inheritanceRequest(List<AssignInheritedRolesRequest> items) {
+        if (items == null || items.isEmpty()) throw new IllegalArgumentException("Invalid or empty input");
+
+        Map<Long, Set<Long>> wanted = new TreeMap<>();
+        for (var it : items) {
+            if (it == null || it.getRoleId() == null || it.getRoleId() <= 0)
+                throw new IllegalArgumentException("Invalid roleId in request");
+            if (it.getInheritedRoleIds() == null || it.getInheritedRoleIds().isEmpty())
+                throw new IllegalArgumentException("inheritedRoleIds must not be empty");
+            var norm = it.getInheritedRoleIds().stream().filter(Objects::nonNull).filter(id -> id > 0)
+                    .collect(Collectors.toCollection(TreeSet::new));
+            if (norm.isEmpty()) throw new IllegalArgumentException("inheritedRoleIds must not be empty");
+            wanted.computeIfAbsent(it.getRoleId(), k -> new TreeSet<>()).addAll(norm);
+        }
+        return wanted;
+    }
+
+    private Map<Long, Role> rolesInvolved(Map<Long, Set<Long>> wanted) {
+        var ids = new TreeSet<>(wanted.keySet());
+        wanted.values().forEach(ids::addAll);
+        var roles = roleRepository.findAllById(ids);
+        if (roles.size() != ids.size()) {
+            var found = roles.stream().map(Role::getId).collect(Collectors.toSet());
+            var missing = ids.stream().filter(id -> !found.contains(id)).toList();
+            throw new ResourceNotFoundException("Some roles not found: " + missing);
+        }
+        Map<Long, Role> byId = new TreeMap<>();
+        roles.forEach(r -> byId.put(r.getId(), r));
+        return byId;
+    }
+
+    @RetryOnLockFailure
     @Transactional
     public String deleteRoles(List<Long> roleIds) {
         if (roleIds == null || roleIds.isEmpty()) throw new IllegalArgumentException("No role IDs provided");
-        var ids = roleIds.stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().toList();
+        var ids = roleIds.stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().sorted().toList();
         if (ids.isEmpty()) throw new IllegalArgumentException("No valid role IDs provided");
 
         var roles = roleRepository.findAllById(ids);
@@ -395,19 +528,39 @@ public class RoleService {
             throw new ResourceNotFoundException("One or more role IDs do not exist: " + missing);
         }
 
-        try {
-            for (Role r : roles) {
-                for (User u : new ArrayList<>(r.getUsers())) {
-                    u.getRoles().remove(r);
+        hierarchy.lock();
+        for (Role r : roles) {
+            for (Role inherited : new ArrayList<>(r.getInherits())) {
+                r.getInherits().remove(inherited);
+                hierarchy.edgeRemoved(r.getId(), inherited.getId());
+            }
+            for (Role parent : roleRepository.findByInheritsId(r.getId())) {
+                parent.getInherits().remove(r);
+                hierarchy.edgeRemoved(parent.getId(), r.getId());
+            }
+        }
+
+        if (deletion.isSoft()) {
+            // Inheritance is undone above because the closure would still grant through these
+            // roles; user, group and permission assignments are left to DeletionPurgeService
+            roles.forEach(r -> r.setDeleted(true));
+        } else {
+            try {
+                for (Role r : roles) {
+                    for (User u : new ArrayList<>(r.getUsers())) {
+                        u.getRoles().remove(r);
+                    }
+                    r.getGroups().clear();
+                    r.getPermissions().clear();
                 }
-                r.getGroups().clear();
-                r.getPermissions().clear();
+                roleRepository.deleteAllInBatch(roles);
+            } catch (DataIntegrityViolationException ex) {
+                throw new IllegalArgumentException("Cannot delete roles due to existing references: " +
+                        (ex.getMostSpecificCause() == null ? ex.getMessage() : ex.getMostSpecificCause().getMessage()));
             }
-            roleRepository.deleteAllInBatch(roles);
-        } catch (DataIntegrityViolationException ex) {
-            throw new IllegalArgumentException("Cannot delete roles due to existing references: " +
-                    (ex.getMostSpecificCause() == null ? ex.getMessage() : ex.getMostSpecificCause().getMessage()));
         }
+        roles.forEach(r -> evictRoleReference(r.getName()));
+        changeLog.record(ChangeLogEntry.EntityType.ROLE, ids, "deleted");
 
         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -420,13 +573,34 @@ public class RoleService {
     public Role getOrCreateRole(String roleName) {
         return roleRepository.findByName(roleName).orElseGet(() -> {
             try {
-                return roleRepository.save(Role.builder().name(roleName).build());
+                Role created = roleRepository.save(Role.builder().name(roleName).build());
+                changeLog.record(ChangeLogEntry.EntityType.ROLE, List.of(created.getId()), "created");
+                return created;
             } catch (DataIntegrityViolationException e) {
                 return roleRepository.findByName(roleName).orElseThrow(() -> e);
             }
         });
     }
 
+    /**
+     * Returns an uninitialized reference to the named role, creating the role on first use.
+     * The id is cached, so linking a new user to it costs no SELECT once warm.
+     */
+    @Transactional
+    public Role getRoleReference(String roleName) {
+        String key = TenantContext.current() + ":" + roleName;
+        Long id = roleIdsByName.get(key);
+        if (id == null) {
+            id = getOrCreateRole(roleName).getId();
+            roleIdsByName.put(key, id);
+        }
+        return em.getReference(Role.class, id);
+    }
+
+    public void evictRoleReference(String roleName) {
+        if (roleName != null) roleIdsByName.remove(TenantContext.current() + ":" + roleName);
+    }
+
     @Transactional(readOnly = true)
     public List<Role> getByIdsOrThrow(List<Long> ids) {
         List<Role> roles = roleRepository.findAllById(ids);
@@ -1,5 +1,7 @@
 package com.example.accesscontrol.service;
 
+import com.example.accesscontrol.config.DeletionProperties;
+import com.example.accesscontrol.config.RetryOnLockFailure;
 import com.example.accesscontrol.config.logs;
 import com.example.accesscontrol.dto.user.assignRolesToUser.AssignRolesRequest;
 import com.example.accesscontrol.dto.user.assignRolesToUser.AssignRolesResponse;
@@ -23,6 +25,7 @@ import com.example.accesscontrol.dto.user.updateUserInfo.ChangePasswordRequest;
 import com.example.accesscontrol.dto.user.updateUserInfo.UpdateEmailRequest;
 import com.example.accesscontrol.dto.user.updateUserStatus.UpdateUserStatusRequest;
 import com.example.accesscontrol.dto.user.updateUserStatus.UpdateUserStatusResponse;
+import com.example.accesscontrol.entity.ChangeLogEntry;
 import com.example.accesscontrol.entity.Group;
 import com.example.accesscontrol.entity.Role;
 import com.example.accesscontrol.entity.User;
@@ -31,6 +34,7 @@ import com.example.accesscontrol.exception.InvalidCredentialsException;
 import com.example.accesscontrol.exception.ResourceNotFoundException;
 import com.example.accesscontrol.exception.UserNotFoundException;
 import com.example.accesscontrol.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
@@ -52,12 +56,17 @@ import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Timed("accesscontrol.service")
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final RoleService roleService;
+    private final GroupService groupService;
+    private final ChangeLogService changeLog;
+    private final DeletionProperties deletion;
+    private final EmailAvailabilityService emailAvailability;
     private final logs logs;
 
     private static final Pattern EMAIL_PATTERN = Pattern.compile(
@@ -93,10 +102,12 @@ public class UserService {
                 .entrySet().stream().filter(e -> e.getValue() > 1).map(Map.Entry::getKey).toList();
         if (!dupInPayload.isEmpty()) throw new IllegalArgumentException("Duplicate emails in request");
 
-        var existingEmails = userRepository.findAllByEmailIn(
-                normalized.stream().map(CreateUserRequest::getEmail).toList()
-        ).stream().map(User::getEmail).toList();
-        if (!existingEmails.isEmpty()) throw new EmailAlreadyUsedException("Some emails already in use");
+        var emails = normalized.stream().map(CreateUserRequest::getEmail).toList();
+        // Emails the filter has never seen go straight to the insert; the unique key guards them
+        var maybeTaken = emails.stream().filter(emailAvailability::mightBeTaken).toList();
+        if (!maybeTaken.isEmpty() && !userRepository.findAllByEmailIn(maybeTaken).isEmpty()) {
+            throw new EmailAlreadyUsedException("Some emails already in use");
+        }
 
         var entities = normalized.stream()
                 .map(u -> User.builder()
@@ -112,6 +123,7 @@ public class UserService {
         } catch (DataIntegrityViolationException ex) {
             throw new EmailAlreadyUsedException("Some emails already in use");
         }
+        emails.forEach(emailAvailability::taken);
 
         // assign MEMBER role
         Role memberRole = roleService.getOrCreateRole("MEMBER");
@@ -120,6 +132,7 @@ public class UserService {
             if (u.getRoles().add(memberRole)) assigned++;
         }
         userRepository.saveAll(saved);
+        changeLog.record(ChangeLogEntry.EntityType.USER, saved.stream().map(User::getId).toList(), "created");
 
         var principal = SecurityContextHolder.getContext().getAuthentication();
         String actor = (principal == null) ? "unknown" : principal.getName();
@@ -191,6 +204,7 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
+        String oldEmail = user.getEmail();
         boolean emailUpdated = false;
         boolean passwordUpdated = false;
 
@@ -198,7 +212,9 @@ public class UserService {
             String newEmail = request.getEmail().trim();
             if (isInvalidEmail(newEmail)) throw new IllegalArgumentException("Invalid email format");
             if (!newEmail.equalsIgnoreCase(user.getEmail())) {
-                if (emailExists(newEmail)) throw new EmailAlreadyUsedException("Email already in use");
+                if (emailAvailability.mightBeTaken(newEmail) && emailExists(newEmail)) {
+                    throw new EmailAlreadyUsedException("Email already in use");
+                }
                 user.setEmail(newEmail);
                 emailUpdated = true;
             }
@@ -214,10 +230,16 @@ public class UserService {
         if (!emailUpdated && !passwordUpdated) throw new IllegalArgumentException("Nothing to update");
 
         try {
-            userRepository.save(user);
+            // Flushed here so a taken email lands in the catch rather than failing the commit
+            userRepository.saveAndFlush(user);
         } catch (DataIntegrityViolationException ex) {
             throw new EmailAlreadyUsedException("Email already in use");
         }
+        if (emailUpdated) {
+            emailAvailability.taken(user.getEmail());
+            emailAvailability.released(oldEmail);
+            changeLog.record(ChangeLogEntry.EntityType.USER, List.of(user.getId()), "email");
+        }
 
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -262,6 +284,7 @@ public class UserService {
 
         u.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(u);
+        changeLog.record(ChangeLogEntry.EntityType.USER, List.of(u.getId()), "password");
         log.info("users.change_password success actor={}", logs.mask(u.getEmail()));
     }
 
@@ -288,18 +311,22 @@ public class UserService {
             throw new IllegalArgumentException("New email must be different from current email");
         }
 
-        if (userRepository.existsByEmailIgnoreCase(newEmail)) {
+        if (emailAvailability.mightBeTaken(newEmail) && userRepository.existsByEmailIgnoreCase(newEmail)) {
             log.info("users.change_email failed reason=conflict actor={} new={}", logs.mask(u.getEmail()), logs.mask(newEmail));
             throw new EmailAlreadyUsedException("Email already taken");
         }
 
+        String oldEmail = u.getEmail();
         try {
             u.setEmail(newEmail);
-            userRepository.save(u);
+            userRepository.saveAndFlush(u);
         } catch (DataIntegrityViolationException ex) {
-            log.info("users.change_email failed reason=unique_violation actor={} new={}", logs.mask(u.getEmail()), logs.mask(newEmail));
+            log.info("users.change_email failed reason=unique_violation actor={} new={}", logs.mask(oldEmail), logs.mask(newEmail));
             throw new EmailAlreadyUsedException("Email already taken");
         }
+        emailAvailability.taken(newEmail);
+        emailAvailability.released(oldEmail);
+        changeLog.record(ChangeLogEntry.EntityType.USER, List.of(u.getId()), "email");
 
         log.info("users.change_email success old={} new={}", logs.mask(auth.getName()), logs.mask(newEmail));
     }
@@ -312,7 +339,7 @@ public class UserService {
         if (userIdsRaw == null || userIdsRaw.isEmpty() || enabled == null)
             throw new IllegalArgumentException("User list or status flag is missing/invalid");
 
-        var userIds = userIdsRaw.stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().toList();
+        var userIds = userIdsRaw.stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().sorted().toList();
         if (userIds.isEmpty()) throw new IllegalArgumentException("No valid user IDs provided");
 
         var users = userRepository.findAllById(userIds);
@@ -320,6 +347,7 @@ public class UserService {
 
         users.forEach(u -> u.setEnabled(enabled));
         var updated = userRepository.saveAll(users);
+        changeLog.record(ChangeLogEntry.EntityType.USER, userIds, "status");
 
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -331,18 +359,19 @@ public class UserService {
                 .build();
     }
 
+    @RetryOnLockFailure
     @Transactional
     public AssignRolesResponse assignRolesToUsers(AssignRolesRequest request) {
         if (request == null || request.getUserIds() == null || request.getRoleIds() == null)
             throw new IllegalArgumentException("User or role list is invalid or empty");
 
-        var userIds = request.getUserIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().toList();
-        var roleIds = request.getRoleIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().toList();
+        var userIds = request.getUserIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().sorted().toList();
+        var roleIds = request.getRoleIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().sorted().toList();
         if (userIds.isEmpty() || roleIds.isEmpty())
             throw new IllegalArgumentException("User or role list is invalid or empty");
 
         var users = getByIdsOrThrow(userIds);
-        var roles = roleService.getByIdsOrThrow(roleIds);
+        var roles = roleService.getByIdsOrThrow(roleIds).stream().sorted(Comparator.comparing(Role::getId)).toList();
 
         int assigned = 0;
         for (User u : users) {
@@ -351,6 +380,7 @@ public class UserService {
             }
         }
         userRepository.saveAll(users);
+        if (assigned > 0) changeLog.record(ChangeLogEntry.EntityType.USER, userIds, "roles");
 
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -363,18 +393,19 @@ public class UserService {
                 .build();
     }
 
+    @RetryOnLockFailure
     @Transactional
     public DeassignRolesResponse deassignRolesFromUsers(DeassignRolesRequest request) {
         if (request == null || request.getUserIds() == null || request.getRoleIds() == null)
             throw new IllegalArgumentException("User or role list is invalid or empty");
 
-        var userIds = request.getUserIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().toList();
-        var roleIds = request.getRoleIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().toList();
+        var userIds = request.getUserIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().sorted().toList();
+        var roleIds = request.getRoleIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().sorted().toList();
         if (userIds.isEmpty() || roleIds.isEmpty())
             throw new IllegalArgumentException("User or role list is invalid or empty");
 
         var users = getByIdsOrThrow(userIds);
-        var roles = roleService.getByIdsOrThrow(roleIds);
+        var roles = roleService.getByIdsOrThrow(roleIds).stream().sorted(Comparator.comparing(Role::getId)).toList();
 
         int removed = 0;
         for (User u : users) {
@@ -383,6 +414,7 @@ public class UserService {
             }
         }
         userRepository.saveAll(users);
+        if (removed > 0) changeLog.record(ChangeLogEntry.EntityType.USER, userIds, "roles");
 
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -395,17 +427,24 @@ public class UserService {
                 .build();
     }
 
+    @RetryOnLockFailure
     @Transactional
     public AssignUsersToGroupsResponse assignUsersToGroups(AssignUsersToGroupsRequest request) {
         if (request == null || request.getUserIds() == null || request.getGroupIds() == null)
             throw new IllegalArgumentException("User or group list is invalid");
 
-        var userIds = request.getUserIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().toList();
-        var groupIds = request.getGroupIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().toList();
+        var userIds = request.getUserIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().sorted().toList();
+        var groupIds = request.getGroupIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().sorted().toList();
         if (userIds.isEmpty() || groupIds.isEmpty())
             throw new IllegalArgumentException("User or group list is invalid");
 
         var users = getByIdsOrThrow(userIds);
+        var existingGroupIds = groupService.getExistingGroupIds(groupIds);
+        if (existingGroupIds.size() != groupIds.size()) {
+            var missing = new TreeSet<>(groupIds);
+            existingGroupIds.forEach(missing::remove);
+            throw new ResourceNotFoundException("Some groups not found: " + missing);
+        }
 
         int assigned = 0;
         for (User u : users) {
@@ -418,6 +457,7 @@ public class UserService {
             }
         }
         userRepository.saveAll(users);
+        if (assigned > 0) changeLog.record(ChangeLogEntry.EntityType.USER, userIds, "groups");
 
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -430,13 +470,14 @@ public class UserService {
                 .build();
     }
 
+    @RetryOnLockFailure
     @Transactional
     public DeassignUsersFromGroupsResponse deassignUsersFromGroups(DeassignUsersFromGroupsRequest request) {
         if (request == null || request.getUserIds() == null || request.getGroupIds() == null)
             throw new IllegalArgumentException("User or group list is invalid");
 
-        var userIds = request.getUserIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().toList();
-        var groupIds = request.getGroupIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().toList();
+        var userIds = request.getUserIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().sorted().toList();
+        var groupIds = request.getGroupIds().stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().sorted().toList();
         if (userIds.isEmpty() || groupIds.isEmpty())
             throw new IllegalArgumentException("User or group list is invalid");
 
@@ -451,6 +492,7 @@ public class UserService {
             u.getGroups().removeAll(toRemove);
         }
         userRepository.saveAll(users);
+        if (removed > 0) changeLog.record(ChangeLogEntry.EntityType.USER, userIds, "groups");
 
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -463,26 +505,34 @@ public class UserService {
                 .build();
     }
 
+    @RetryOnLockFailure
     @Transactional
     public DeleteUsersResponse deleteUsers(DeleteUsersRequest request) {
         var idsRaw = request == null ? null : request.getUserIds();
         if (idsRaw == null || idsRaw.isEmpty()) throw new IllegalArgumentException("User ID list is invalid");
 
-        var userIds = idsRaw.stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().toList();
+        var userIds = idsRaw.stream().filter(Objects::nonNull).filter(id -> id > 0).distinct().sorted().toList();
         if (userIds.isEmpty()) throw new IllegalArgumentException("User ID list is invalid");
 
         var users = userRepository.findAllById(userIds);
         if (users.size() != userIds.size()) throw new ResourceNotFoundException("Some users not found");
 
-        try {
-            for (User u : users) {
-                u.getRoles().clear();
-                u.getGroups().clear();
+        if (deletion.isSoft()) {
+            // Role and group assignments go with the rows, see DeletionPurgeService
+            users.forEach(u -> u.setDeleted(true));
+        } else {
+            try {
+                for (User u : users) {
+                    u.getRoles().clear();
+                    u.getGroups().clear();
+                }
+                userRepository.deleteAllInBatch(users);
+            } catch (DataIntegrityViolationException ex) {
+                throw new IllegalArgumentException("Cannot delete users due to existing references");
             }
-            userRepository.deleteAllInBatch(users);
-        } catch (DataIntegrityViolationException ex) {
-            throw new IllegalArgumentException("Cannot delete users due to existing references");
+            users.forEach(u -> emailAvailability.released(u.getEmail()));
         }
+        changeLog.record(ChangeLogEntry.EntityType.USER, userIds, "deleted");
 
         var auth = SecurityContextHolder.getContext().getAuthentication();
         String actor = (auth == null) ? "unknown" : auth.getName();
@@ -520,7 +570,20 @@ public class UserService {
     }
 
     @Transactional
-    public User save(User user) { return userRepository.save(user); }
+    public User save(User user) {
+        boolean created = user.getId() == null;
+        User saved = userRepository.save(user);
+        changeLog.record(ChangeLogEntry.EntityType.USER, List.of(saved.getId()), created ? "created" : "saved");
+        return saved;
+    }
+
+    @Transactional
+    public User saveAndFlush(User user) {
+        boolean created = user.getId() == null;
+        User saved = userRepository.saveAndFlush(user);
+        changeLog.record(ChangeLogEntry.EntityType.USER, List.of(saved.getId()), created ? "created" : "saved");
+        return saved;
+    }
 
     @Transactional(readOnly = true)
     public User getWithRolesByEmailOrThrow(String email) {